@@ -0,0 +1,63 @@
+package com.example.training.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDtoSerializationBenchmark {
+
+    // The default and maximum page size of GET /api/v1/users
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<UserDto> users;
+    private UserPageDto page;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring MVC uses
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(new UserDto(id, "user" + id, "user" + id + "@example.com", null,
+                    "First", "Last", Set.of("USER", "ADMIN")));
+        }
+        page = UserPageDto.builder()
+                .items(users)
+                .nextCursor("djF8aWR8YXNjfDEwMHw")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.training.repository;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for {@link UserRepository}, so benchmarks measure the mapping code
+ * around the repository rather than a database or a mocking framework.
+ */
+public final class UserRepositoryStubs {
+
+    private UserRepositoryStubs() {
+    }
+
+    /**
+     * @param answers repository method name to the function computing its result from the call arguments
+     * @return a repository that throws UnsupportedOperationException for any other method
+     */
+    public static UserRepository answering(Map<String, Function<Object[], Object>> answers) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return answer.apply(args);
+                });
+    }
+}
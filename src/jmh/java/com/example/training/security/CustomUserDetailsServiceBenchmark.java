@@ -0,0 +1,79 @@
+package com.example.training.security;
+
+import com.example.training.model.User;
+import com.example.training.repository.UserRepositoryStubs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomUserDetailsServiceBenchmark {
+
+    @Param({"1", "5"})
+    private int roleCount;
+
+    private CustomUserDetailsService userDetailsService;
+    private List<String> roles;
+    private AuthenticatedUser user;
+
+    @Setup
+    public void setUp() {
+        roles = new ArrayList<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add("ROLE" + i);
+        }
+        User entity = new User();
+        entity.setId(1L);
+        entity.setUsername("benchmark");
+        entity.setPassword("encoded_password");
+        entity.setRoles(new HashSet<>(roles));
+
+        // With the cache off every call maps the user again
+        userDetailsService = new CustomUserDetailsService(
+                UserRepositoryStubs.answering(Map.of("findByUsername", args -> Optional.of(entity))),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userDetailsService, "cacheEnabled", false);
+        userDetailsService.init();
+        user = new AuthenticatedUser(1L, "benchmark", "encoded_password", true, AuthenticatedUser.toAuthorities(roles));
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("benchmark");
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> toAuthorities() {
+        return AuthenticatedUser.toAuthorities(roles);
+    }
+
+    @Benchmark
+    public Set<String> getRoles() {
+        return user.getRoles();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.training.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    // A public path matched by the first check, one matched by the last, and a protected one
+    @Param({"/api/v1/auth/login", "/actuator/health", "/api/v1/users/me"})
+    private String path;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        // shouldNotFilter only looks at the request path
+        filter = new JwtAuthenticationFilter(null, null, null, null);
+        request = new MockHttpServletRequest("GET", path);
+    }
+
+    @Benchmark
+    public boolean shouldNotFilter() {
+        return filter.shouldNotFilter(request);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.training.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    // Stateless tokens also carry the user id, roles and enabled flag
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "benchmark-secret-key-that-is-at-least-32-bytes");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "statelessEnabled", stateless);
+        jwtTokenProvider.init();
+
+        user = new AuthenticatedUser(1L, "benchmark", "encoded_password", true,
+                AuthenticatedUser.toAuthorities(List.of("USER", "ADMIN")));
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyToken() {
+        return jwtTokenProvider.verifyToken(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token, user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtTokenProvider.extractUsername(token);
+    }
+}
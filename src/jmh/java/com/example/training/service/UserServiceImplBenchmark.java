@@ -0,0 +1,109 @@
+package com.example.training.service;
+
+import com.example.training.audit.AuditEventPublisher;
+import com.example.training.dto.UserDto;
+import com.example.training.model.User;
+import com.example.training.repository.UserRepository;
+import com.example.training.repository.UserRepositoryStubs;
+import com.example.training.repository.UserRoleRow;
+import com.example.training.service.impl.UserBatchLoader;
+import com.example.training.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and row to DTO mapping in {@link UserServiceImpl}, with the repository replaced by
+ * in-memory data and password encoding by a no-op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceImplBenchmark {
+
+    private static final int EXPORT_USERS = 1_000;
+
+    private UserServiceImpl userService;
+    private UserDto newUser;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setRoles(Set.of("USER", "ADMIN"));
+        List<UserRoleRow> exportRows = new ArrayList<>();
+        for (long id = 1; id <= EXPORT_USERS; id++) {
+            exportRows.add(new UserRoleRow(id, "user" + id, "user" + id + "@example.com", "First", "Last", "USER"));
+            exportRows.add(new UserRoleRow(id, "user" + id, "user" + id + "@example.com", "First", "Last", "ADMIN"));
+        }
+
+        UserRepository userRepository = UserRepositoryStubs.answering(Map.of(
+                "findById", args -> Optional.of(user),
+                "streamAllWithRoles", args -> exportRows.stream(),
+                "existsByUsername", args -> false,
+                "existsByEmail", args -> false,
+                "save", args -> args[0]));
+        userService = new UserServiceImpl(
+                userRepository,
+                NoOpPasswordEncoder.getInstance(),
+                event -> { },
+                // Auditing and batching stay disabled without the application properties
+                new AuditEventPublisher(new SimpleMeterRegistry()),
+                new UserBatchLoader(userRepository, null, null, new SimpleMeterRegistry()),
+                // Only updates that change a password revoke refresh tokens, and none is benchmarked
+                null,
+                // The stub repository has no transactions to run
+                new TransactionTemplate() {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        return action.doInTransaction(null);
+                    }
+                });
+
+        newUser = new UserDto(null, "newuser", "newuser@example.com", "password", "New", "User", Set.of("USER"));
+    }
+
+    @Benchmark
+    public UserDto getUserById() {
+        return userService.getUserById(1L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPORT_USERS)
+    public void exportUsers(Blackhole blackhole) {
+        userService.exportUsers(null, blackhole::consume);
+    }
+
+    @Benchmark
+    public UserDto createUser() {
+        return userService.createUser(newUser);
+    }
+}
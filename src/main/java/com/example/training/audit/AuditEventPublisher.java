@@ -0,0 +1,115 @@
+package com.example.training.audit;
+
+import com.example.training.model.AuditAction;
+import com.example.training.model.AuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Entry point of the audit trail. Publishing only appends to an in-memory ring buffer, which
+ * {@link AuditEventWriter} drains into the {@code audit_events} table in the background, so
+ * auditing adds no database work to the request. When the writer cannot keep up and the
+ * buffer is full, events are dropped and counted rather than slowing requests down.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditEventPublisher {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.audit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.security.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    private MpscRingBuffer<AuditEvent> buffer;
+    private Counter publishedCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    protected void init() {
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.capacity", buffer, MpscRingBuffer::capacity)
+                .description("Audit events that can wait before new ones are dropped")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("audit.events.published")
+                .description("Audit events accepted into the buffer")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("audit.events.dropped")
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        log.debug("Audit trail {} (bufferCapacity={})", enabled ? "enabled" : "disabled", buffer.capacity());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records an action done by the current user. Inside a transaction the event is only
+     * published once the transaction commits, so rolled back changes are not audited.
+     * @param action what was done
+     * @param subject the username it was done to
+     * @param outcome how it ended, e.g. success or bad_credentials
+     * @param details free-form details, or null
+     */
+    public void publish(AuditAction action, String subject, String outcome, String details) {
+        if (!enabled) {
+            return;
+        }
+
+        AuditEvent event = new AuditEvent(null, Instant.now(), action, currentActor(), subject, outcome, details);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event);
+                }
+            });
+        } else {
+            offer(event);
+        }
+    }
+
+    /**
+     * Hands up to {@code max} buffered events to the consumer; only called by the writer thread.
+     */
+    int drain(Consumer<AuditEvent> consumer, int max) {
+        return buffer.drain(consumer, max);
+    }
+
+    double getDroppedCount() {
+        return droppedCounter.count();
+    }
+
+    private void offer(AuditEvent event) {
+        if (buffer.offer(event)) {
+            publishedCounter.increment();
+        } else {
+            droppedCounter.increment();
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+}
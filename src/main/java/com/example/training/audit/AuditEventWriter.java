@@ -0,0 +1,119 @@
+package com.example.training.audit;
+
+import com.example.training.model.AuditEvent;
+import com.example.training.repository.AuditEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single background thread that drains the {@link AuditEventPublisher} buffer and inserts
+ * the events in batches, one transaction per batch. Whatever is still buffered on shutdown
+ * is written before the application context closes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditEventWriter {
+
+    private final AuditEventPublisher publisher;
+    private final AuditEventRepository auditEventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.audit.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.security.audit.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    private Thread thread;
+    private volatile boolean running;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer writeTimer;
+    private double reportedDrops;
+
+    @PostConstruct
+    protected void init() {
+        writtenCounter = Counter.builder("audit.events.written")
+                .description("Audit events inserted into the database")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("audit.events.failed")
+                .description("Audit events lost because their batch could not be inserted")
+                .register(meterRegistry);
+        writeTimer = Timer.builder("audit.write")
+                .description("Time spent inserting a batch of audit events")
+                .register(meterRegistry);
+
+        if (!publisher.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(Duration.ofSeconds(10).toMillis());
+    }
+
+    private void run() {
+        while (running) {
+            // A full batch means more may be waiting, so only pause once the buffer is drained
+            if (flush() < batchSize) {
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+            }
+        }
+        while (flush() > 0) {
+            // Write out what was published before shutdown
+        }
+    }
+
+    /**
+     * Writes one batch.
+     * @return the number of events taken from the buffer
+     */
+    int flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        publisher.drain(batch::add, batchSize);
+        reportDrops();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            writeTimer.record(() -> auditEventRepository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Could not write {} audit events", batch.size(), e);
+        }
+        return batch.size();
+    }
+
+    private void reportDrops() {
+        double dropped = publisher.getDroppedCount();
+        if (dropped > reportedDrops) {
+            log.warn("Audit buffer was full, dropped {} events", (long) (dropped - reportedDrops));
+            reportedDrops = dropped;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.training.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free queue for many producers and a single consumer. Producers claim a slot
+ * with one CAS and never block: when the buffer is full {@link #offer} just returns false.
+ * <p>
+ * Every slot carries a sequence number telling whose turn it is. A slot at position {@code p}
+ * is free for the producer of {@code p} while its sequence is {@code p}, readable by the
+ * consumer once it is {@code p + 1}, and is handed back to producers as {@code p + capacity}.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only written by the consumer; volatile so size() can be read from anywhere
+    private volatile long head;
+
+    /**
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        mask = size - 1;
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element; safe to call from any number of threads.
+     * @return false if the buffer was full and the element was not added
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                // The consumer has not freed this slot from the previous lap yet
+                return false;
+            }
+            // Another producer claimed the slot first; retry with the new tail
+        }
+    }
+
+    /**
+     * Removes up to {@code max} elements in order. Must only be called from one thread at a time.
+     * @return the number of elements handed to the consumer
+     */
+    public int drain(Consumer<? super E> consumer, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // Empty, or a producer has claimed the slot but not filled it yet
+                break;
+            }
+            E element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+            consumer.accept(element);
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * @return the number of elements waiting, approximate while producers are active
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.training.config;
+
+import com.example.training.model.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for users, their roles and their username and email lookups,
+ * held in size-bounded Caffeine caches in this JVM. Hits, misses and puts per region are
+ * published as {@code hibernate.second.level.cache.*}, {@code hibernate.cache.natural.id.*} and
+ * {@code hibernate.cache.query.*} metrics, since statistics are enabled.
+ * <p>
+ * Every node has its own copy: writes through Hibernate keep the local copy consistent, while
+ * changes made on other nodes or directly in the database are only seen once entries expire.
+ */
+@Configuration
+@Slf4j
+public class EntityCacheConfig {
+
+    private static final List<String> ENTITY_REGIONS = List.of(
+            User.CACHE_REGION,
+            User.ROLES_CACHE_REGION,
+            User.USERNAME_CACHE_REGION,
+            User.EMAIL_CACHE_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    @Value("${app.entity-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.entity-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.entity-cache.ttl:10m}")
+    private Duration ttl;
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer() {
+        return properties -> {
+            if (!enabled) {
+                log.debug("Entity cache is disabled");
+                return;
+            }
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            // Hibernate closes the cache manager together with the session factory
+            properties.put(ConfigSettings.CACHE_MANAGER, createCacheManager());
+            // A region without a cache configured below is a mistake, not something to default
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            log.debug("Entity cache initialized (maximumSize={}, ttl={})", maximumSize, ttl);
+        };
+    }
+
+    private CacheManager createCacheManager() {
+        // A manager of its own, so application contexts sharing the JVM (as in tests) share no entries
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : ENTITY_REGIONS) {
+            cacheManager.createCache(region, new CaffeineConfiguration<>()
+                    .setMaximumSize(OptionalLong.of(maximumSize))
+                    .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                    // Hibernate caches immutable disassembled state, so copying it on every access is wasted
+                    .setStoreByValue(false));
+        }
+        // Holds one timestamp per table and must never lose one, or stale query results could be served
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+}
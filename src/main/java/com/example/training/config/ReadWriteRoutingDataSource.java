@@ -0,0 +1,97 @@
+package com.example.training.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica and all others to the primary.
+ * <p>
+ * The transaction manager fetches its connection before it marks the transaction read-only,
+ * so this data source must sit behind a {@link LazyConnectionDataSourceProxy}, which fetches
+ * the connection on the first statement. A read-only transaction joining a read-write one
+ * shares its primary connection.
+ * <p>
+ * After a user's read-write transaction commits, that user's read-only transactions use the
+ * primary for the read-your-writes window, so they never miss their own change on a lagging
+ * replica. Other users may see the change a little later.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final Cache<String, Boolean> recentWriters;
+    private final Counter primaryReadWrites;
+    private final Counter primaryReadYourWrites;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow,
+                                      MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        recentWriters = readYourWritesWindow.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        primaryReadWrites = routedConnections(meterRegistry, PRIMARY, "read_write");
+        primaryReadYourWrites = routedConnections(meterRegistry, PRIMARY, "read_your_writes");
+        replicaReads = routedConnections(meterRegistry, REPLICA, "read");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryReadWrites.increment();
+            rememberWriter(user);
+            return PRIMARY;
+        }
+        if (user != null && recentWriters != null && recentWriters.getIfPresent(user) != null) {
+            primaryReadYourWrites.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return REPLICA;
+    }
+
+    private void rememberWriter(String user) {
+        if (user == null || recentWriters == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter routedConnections(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write routing data source")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
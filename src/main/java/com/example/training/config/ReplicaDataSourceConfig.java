@@ -0,0 +1,81 @@
+package com.example.training.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single auto-configured pool with a primary and a read replica pool when
+ * {@code app.datasource.replica.enabled} is set. {@code @Transactional(readOnly = true)} work
+ * reads from the replica (see {@link ReadWriteRoutingDataSource}). The primary pool takes its
+ * settings from {@code spring.datasource}, the replica from {@code app.datasource.replica}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaDataSourceConfig {
+
+    @Value("${app.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    // Flyway migrates the primary directly
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        dataSource.setPoolName("replica");
+        // Guards against writes that slip through to the replica
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MeterRegistry meterRegistry) {
+        log.info("Routing read-only transactions to the replica (read-your-writes window {})", readYourWritesWindow);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, readYourWritesWindow,
+                meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.training.config;
 
+import com.example.training.observability.ServerTimingFilter;
+import com.example.training.security.BoundedPasswordEncoder;
 import com.example.training.security.JwtAuthenticationFilter;
+import com.example.training.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,7 +22,6 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -27,7 +32,10 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final ServerTimingFilter serverTimingFilter;
     private final UserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.profiles.active:}")
     private String activeProfile;
@@ -45,6 +53,11 @@ public class SecurityConfig {
         } else {
             // Production security rules
             http.authorizeHttpRequests(auth -> auth
+                // Async and error dispatches belong to a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                // Recordings hold request data and cost CPU while they run
+                .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/tokens/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/auth/**",
                                 "/api/v1/environment",
                                 "/swagger-ui/**",
@@ -59,11 +72,21 @@ public class SecurityConfig {
         http.sessionManagement(session ->
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Wraps JWT verification and the controllers, and still sees who was authenticated
+            .addFilterBefore(serverTimingFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilterRegistration() {
+        // Only runs inside the security filter chain, not as a servlet filter of its own
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(serverTimingFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -73,8 +96,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        // BCrypt runs on the bounded hashing pool instead of the calling (servlet) thread
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor, meterRegistry);
     }
 
     @Bean
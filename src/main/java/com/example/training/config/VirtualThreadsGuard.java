@@ -0,0 +1,43 @@
+package com.example.training.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks at startup that the virtual thread mode requested with
+ * {@code spring.threads.virtual.enabled} can actually take effect.
+ */
+@Component
+@Slf4j
+public class VirtualThreadsGuard {
+
+    private static final int MIN_JAVA_VERSION = 21;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @PostConstruct
+    public void checkVirtualThreads() {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < MIN_JAVA_VERSION) {
+            // Spring Boot silently ignores the property below Java 21
+            log.warn("spring.threads.virtual.enabled is set but the application runs on Java {}; "
+                    + "requests are still served by platform threads. Build and run with -Pjava21", javaVersion);
+            return;
+        }
+
+        log.info("Serving requests and async tasks on virtual threads");
+        // Tomcat's thread limit no longer bounds concurrency, so the connection pool does
+        log.info("Concurrent database work is limited by the connection pool ({} connections); "
+                + "run with -Djdk.tracePinnedThreads=short to report pinned carrier threads", connectionPoolSize);
+    }
+}
@@ -2,30 +2,66 @@ package com.example.training.controller;
 
 import com.example.training.dto.AuthRequestDto;
 import com.example.training.dto.AuthResponseDto;
+import com.example.training.dto.RefreshTokenRequestDto;
 import com.example.training.dto.UserDto;
+import com.example.training.exception.ValidationException;
+import com.example.training.security.LoginRateLimiter;
 import com.example.training.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.Callable;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    // Login and registration are dominated by BCrypt, so they release the servlet thread and
+    // run on the MVC async executor; only the hash itself runs on the bounded hashing pool
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody AuthRequestDto request) {
-        return ResponseEntity.ok(authService.authenticate(request));
+    public Callable<ResponseEntity<AuthResponseDto>> login(
+            @Valid @RequestBody AuthRequestDto request,
+            HttpServletRequest httpRequest) {
+        // Throttled attempts are answered with 429 before they queue for a BCrypt thread
+        loginRateLimiter.acquire(httpRequest.getRemoteAddr(), request.getUsername());
+        return () -> ResponseEntity.ok(authService.authenticate(request));
     }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponseDto> register(@Valid @RequestBody UserDto userDto) {
-        return ResponseEntity.ok(authService.register(userDto));
+    public Callable<ResponseEntity<AuthResponseDto>> register(@Valid @RequestBody UserDto userDto) {
+        return () -> ResponseEntity.ok(authService.register(userDto));
+    }
+
+    // No password check, so this stays on the servlet thread
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDto> refresh(@Valid @RequestBody RefreshTokenRequestDto request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) RefreshTokenRequestDto request) {
+        if (!authorization.startsWith(BEARER_PREFIX)) {
+            throw new ValidationException("Authorization header must carry a bearer token");
+        }
+        authService.logout(authorization.substring(BEARER_PREFIX.length()),
+                request == null ? null : request.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
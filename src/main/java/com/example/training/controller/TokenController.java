@@ -0,0 +1,24 @@
+package com.example.training.controller;
+
+import com.example.training.service.AuthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/tokens")
+@RequiredArgsConstructor
+public class TokenController {
+
+    private final AuthService authService;
+
+    // Forced revocation of a leaked token, by the jti recorded in the LOGIN audit event
+    @DeleteMapping("/{jti}")
+    public ResponseEntity<Void> revokeToken(@PathVariable String jti) {
+        authService.revokeToken(jti);
+        return ResponseEntity.noContent().build();
+    }
+}
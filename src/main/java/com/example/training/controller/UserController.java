@@ -1,30 +1,101 @@
 package com.example.training.controller;
 
 import com.example.training.dto.UserDto;
-import com.example.training.model.User;
-import com.example.training.repository.UserRepository;
+import com.example.training.dto.UserImportResultDto;
+import com.example.training.dto.UserPageDto;
+import com.example.training.dto.UserPageRequestDto;
+import com.example.training.exception.ValidationException;
+import com.example.training.service.UserImportService;
 import com.example.training.service.UserService;
+import com.example.training.util.AppUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.TreeSet;
 
 @RestController
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final String CSV_HEADER = "id,username,email,firstName,lastName,roles\n";
+
     private final UserService userService;
-    private final UserRepository userRepository;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final UserExportExecutor userExportExecutor;
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<UserPageDto> getAllUsers(@Valid UserPageRequestDto pageRequest) {
+        return ResponseEntity.ok(userService.getAllUsers(pageRequest));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<UserDto>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            HttpServletRequest request) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new ValidationException("Format must be one of: ndjson, csv");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+            }
+            userService.exportUsers(since, user -> {
+                try {
+                    writer.write(csv ? toCsvLine(user) : objectMapper.writeValueAsString(user) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        userExportExecutor.prepare(request);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<UserImportResultDto> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        boolean csv = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        return ResponseEntity.ok(userImportService.importUsers(reader, csv));
     }
 
     @GetMapping("/{id}")
@@ -50,22 +121,16 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<UserDto> getCurrentUser() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Use the repository to find the user ID by username
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Current user not found"));
-
-            // Use the UserService to get the user details by ID
-            UserDto userDto = userService.getUserById(user.getId());
-
-            return ResponseEntity.ok(userDto);
-        } catch (Exception e) {
-            // Log the error
-            e.printStackTrace();
-            throw e;
-        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ResponseEntity.ok(userService.getUserByUsername(authentication.getName()));
+    }
+
+    private static String toCsvLine(UserDto user) {
+        return user.getId() + ","
+                + AppUtils.escapeCsv(user.getUsername()) + ","
+                + AppUtils.escapeCsv(user.getEmail()) + ","
+                + AppUtils.escapeCsv(user.getFirstName()) + ","
+                + AppUtils.escapeCsv(user.getLastName()) + ","
+                + AppUtils.escapeCsv(String.join(";", new TreeSet<>(user.getRoles()))) + "\n";
     }
 }
@@ -0,0 +1,103 @@
+package com.example.training.controller;
+
+import com.example.training.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the streamed bodies of user exports on a few threads of their own instead of the MVC
+ * async executor. An export holds its thread and a database connection for as long as it
+ * streams, so on the shared executor a few exports would slow logins down, and a login backlog
+ * would hold exports up. At most {@code max-concurrent} exports run at a time; further ones are
+ * rejected before their response starts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class UserExportExecutor {
+
+    private static final String INTERCEPTOR_KEY = UserExportExecutor.class.getName();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.users.export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.users.export.timeout:1h}")
+    private Duration timeout;
+
+    private Semaphore slots;
+    private ThreadPoolTaskExecutor executor;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    protected void init() {
+        slots = new Semaphore(maxConcurrent);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setThreadNamePrefix("user-export-");
+        executor.initialize();
+
+        Gauge.builder("users.export.active", slots, s -> maxConcurrent - s.availablePermits())
+                .description("User exports currently streaming")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("users.export.rejected")
+                .description("User exports rejected because max-concurrent exports were running")
+                .register(meterRegistry);
+        log.debug("User export executor initialized (maxConcurrent={}, timeout={})", maxConcurrent, timeout);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Takes an export slot for the request and makes the async processing of its body run on
+     * the export threads, with the export timeout. The slot is released when the request
+     * completes. Call it last in the handler, right before the body is returned.
+     * @throws ServiceUnavailableException if {@code max-concurrent} exports are running
+     */
+    void prepare(HttpServletRequest request) {
+        if (!slots.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many concurrent exports, please retry later");
+        }
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        // The handler adapter has set its own executor already; this one replaces it for this request
+        asyncManager.setTaskExecutor(executor);
+        asyncManager.registerCallableInterceptor(INTERCEPTOR_KEY, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                // Set before the async processing starts, so other async requests keep the default
+                if (webRequest instanceof AsyncWebRequest asyncWebRequest) {
+                    asyncWebRequest.setTimeout(timeout.toMillis());
+                }
+            }
+
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                slots.release();
+            }
+        });
+    }
+}
@@ -11,7 +11,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AuthResponseDto {
     private String token;
+    @Builder.Default
     private String tokenType = "Bearer";
+    /** Seconds until {@link #token} expires. */
+    private long expiresIn;
+    /** Exchanged at /api/v1/auth/refresh for a new token pair. */
+    private String refreshToken;
     private String username;
     private Long userId;
-}
\ No newline at end of file
+}
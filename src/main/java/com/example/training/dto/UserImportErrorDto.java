@@ -0,0 +1,14 @@
+package com.example.training.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportErrorDto {
+    // 1-based line number in the uploaded body
+    private long line;
+    private String message;
+}
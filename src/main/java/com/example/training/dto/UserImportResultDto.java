@@ -0,0 +1,19 @@
+package com.example.training.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResultDto {
+    private long processed;
+    private long imported;
+    private long failed;
+    // Capped, see failed for the full count
+    private List<UserImportErrorDto> errors = new ArrayList<>();
+}
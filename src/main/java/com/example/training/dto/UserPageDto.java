@@ -0,0 +1,20 @@
+package com.example.training.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDto {
+    private List<UserDto> items;
+    // Null when this is the last page
+    private String nextCursor;
+    // Only filled in when includeTotal=true
+    private Long total;
+}
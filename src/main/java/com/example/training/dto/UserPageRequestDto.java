@@ -0,0 +1,29 @@
+package com.example.training.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageRequestDto {
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit must be at most 100")
+    private int limit = 20;
+
+    // Opaque value taken from the nextCursor of the previous page
+    private String cursor;
+
+    @Pattern(regexp = "id|createdAt", message = "Sort must be one of: id, createdAt")
+    private String sort = "id";
+
+    @Pattern(regexp = "asc|desc", message = "Direction must be one of: asc, desc")
+    private String direction = "asc";
+
+    private boolean includeTotal = false;
+}
@@ -0,0 +1,16 @@
+package com.example.training.event;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Published when a user's credentials, roles, enabled state or username may have changed,
+ * so anything caching data for those usernames can drop it.
+ * @param usernames every username the change affects (old and new, for renames)
+ */
+public record UserChangedEvent(Set<String> usernames) {
+
+    public static UserChangedEvent of(String... usernames) {
+        return new UserChangedEvent(Set.copyOf(Arrays.asList(usernames)));
+    }
+}
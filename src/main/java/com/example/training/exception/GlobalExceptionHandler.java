@@ -1,7 +1,11 @@
 package com.example.training.exception;
 
+import com.example.training.observability.StackTraceThrottle;
 import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,9 +21,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    // Auth failures are expected client errors: log each one, but only sample their stack traces
+    private final StackTraceThrottle stackTraceThrottle;
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
         ErrorResponse error = new ErrorResponse(
@@ -40,6 +48,42 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    // The MVC async executor is saturated (spring.task.execution.pool.queue-capacity)
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(TaskRejectedException ex) {
+        return handleServiceUnavailableException(
+                new ServiceUnavailableException("Too many concurrent requests, please retry", ex));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        // Rejections come in bursts and are counted in metrics, so they are not logged as warnings
+        log.debug("Too many requests: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        // Whole seconds, rounded up so that a client retrying on time is let through
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -59,7 +103,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(BadCredentialsException ex) {
-        log.error("Authentication failed: Bad credentials", ex);
+        log.warn("Authentication failed: Bad credentials", stackTraceThrottle.sample(ex));
         ErrorResponse error = new ErrorResponse(
             HttpStatus.UNAUTHORIZED.value(),
             "Invalid username or password",
@@ -70,7 +114,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex) {
-        log.error("Authentication failed: {}", ex.getMessage(), ex);
+        log.warn("Authentication failed: {}", ex.getMessage(), stackTraceThrottle.sample(ex));
         ErrorResponse error = new ErrorResponse(
             HttpStatus.UNAUTHORIZED.value(),
             "Authentication failed: " + ex.getMessage(),
@@ -81,7 +125,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(JwtException.class)
     public ResponseEntity<ErrorResponse> handleJwtException(JwtException ex) {
-        log.error("JWT token error: {}", ex.getMessage(), ex);
+        log.warn("JWT token error: {}", ex.getMessage(), stackTraceThrottle.sample(ex));
         ErrorResponse error = new ErrorResponse(
             HttpStatus.UNAUTHORIZED.value(),
             "Invalid or expired JWT token",
@@ -92,7 +136,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException ex) {
-        log.error("Access denied: {}", ex.getMessage(), ex);
+        log.warn("Access denied: {}", ex.getMessage(), stackTraceThrottle.sample(ex));
         ErrorResponse error = new ErrorResponse(
             HttpStatus.FORBIDDEN.value(),
             "Access denied",
@@ -0,0 +1,9 @@
+package com.example.training.model;
+
+public enum AuditAction {
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    LOGIN,
+    TOKEN_REVOKED
+}
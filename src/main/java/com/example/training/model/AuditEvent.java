@@ -0,0 +1,42 @@
+package com.example.training.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "audit_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    // Pooled like users_id_seq so the writer's inserts go out as JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_events_id_seq")
+    @SequenceGenerator(name = "audit_events_id_seq", sequenceName = "audit_events_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private AuditAction action;
+
+    /** The authenticated user who did it, or null for anonymous requests such as login. */
+    @Column(length = 50)
+    private String actor;
+
+    /** The user it was done to. */
+    @Column(length = 50)
+    private String subject;
+
+    @Column(nullable = false, length = 20)
+    private String outcome;
+
+    private String details;
+}
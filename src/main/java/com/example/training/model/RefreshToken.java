@@ -0,0 +1,38 @@
+package com.example.training.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    /** SHA-256 of the token handed to the client, hex encoded; the token itself is never stored. */
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** Shared by a token and all tokens it was rotated into, so a stolen chain can be revoked at once. */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /** Set when the token is exchanged; presenting it again means it was copied. */
+    @Column(name = "used_at")
+    private Instant usedAt;
+}
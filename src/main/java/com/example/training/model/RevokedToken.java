@@ -0,0 +1,32 @@
+package com.example.training.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    /** The {@code jti} claim of the revoked token. */
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    /** The user the token was issued to, or null if it was revoked by id only. */
+    @Column(length = 50)
+    private String subject;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    /** After this the token is rejected anyway, so the row can be deleted. */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
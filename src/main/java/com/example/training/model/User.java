@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -13,15 +17,29 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+// Read-mostly rows kept in the second-level cache (see config.EntityCacheConfig); READ_WRITE
+// locks an entry while a transaction changes it, so other sessions never read a stale copy
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.USERNAME_CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
+
+    public static final String CACHE_REGION = "users";
+    public static final String ROLES_CACHE_REGION = "users.roles";
+    public static final String USERNAME_CACHE_REGION = "users.by-username";
+    public static final String EMAIL_CACHE_REGION = "users.by-email";
     
+    // A pooled sequence (unlike IDENTITY) lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
     
+    // Users can be renamed, so the natural id is mutable
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 50)
     private String username;
     
@@ -43,10 +61,11 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.ROLES_CACHE_REGION)
     private Set<String> roles = new HashSet<>();
     
     @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @UpdateTimestamp
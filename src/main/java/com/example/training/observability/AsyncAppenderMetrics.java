@@ -0,0 +1,42 @@
+package com.example.training.observability;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Queue depth and dropped events of the async appenders in logback-spring.xml, per appender.
+ */
+@Component
+public class AsyncAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof CountingAsyncAppender appender) {
+                FunctionCounter.builder("logback.events.dropped", appender, CountingAsyncAppender::getDroppedCount)
+                        .description("Log events discarded because the async appender queue was (nearly) full")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+                Gauge.builder("logback.queue.size", appender, CountingAsyncAppender::getNumberOfElementsInQueue)
+                        .description("Log events waiting to be written")
+                        .tag("appender", appender.getName())
+                        .register(registry);
+            }
+        }
+    }
+}
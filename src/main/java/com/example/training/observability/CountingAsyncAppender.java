@@ -0,0 +1,33 @@
+package com.example.training.observability;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback's {@link AsyncAppender}, counting the events it throws away. With
+ * {@code neverBlock} set, an event is lost when the queue is full; below the discarding
+ * threshold, TRACE, DEBUG and INFO events are dropped on purpose to leave room for warnings
+ * and errors. Both show up as {@code logback.events.dropped} (see {@link AsyncAppenderMetrics}).
+ * <p>
+ * The count is taken just before handing the event on, so under contention it can be off by
+ * a few events.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (isNeverBlock() && remaining == 0)) {
+            dropped.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
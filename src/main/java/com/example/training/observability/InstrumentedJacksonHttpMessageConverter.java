@@ -0,0 +1,41 @@
+package com.example.training.observability;
+
+import com.example.training.observability.jfr.JsonSerializationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter Spring Boot would configure otherwise, with writes counted as the
+ * {@link ServerTiming.Phase#JSON} phase of timed requests and recorded as
+ * {@link JsonSerializationEvent}s.
+ */
+@Component
+public class InstrumentedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public InstrumentedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object object, Type type, @NonNull HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        JsonSerializationEvent event = new JsonSerializationEvent(object.getClass());
+        event.begin();
+        long start = ServerTiming.begin();
+        String outcome = "error";
+        try {
+            super.writeInternal(object, type, outputMessage);
+            outcome = "success";
+        } finally {
+            ServerTiming.end(ServerTiming.Phase.JSON, start);
+            event.commit(null, outcome);
+        }
+    }
+}
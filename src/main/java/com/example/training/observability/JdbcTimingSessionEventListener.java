@@ -0,0 +1,33 @@
+package com.example.training.observability;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the open {@link QueryStats}
+ * scopes. Hibernate creates one instance per session, registered through
+ * {@code hibernate.session.events.auto}.
+ */
+public class JdbcTimingSessionEventListener implements SessionEventListener {
+
+    private long executeStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.jdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.jdbcTime(System.nanoTime() - executeStart);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.training.observability;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares into the open {@link QueryStats} scopes.
+ * Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.training.observability;
+
+import java.time.Duration;
+
+/**
+ * SQL statements and JDBC time spent on the current thread between {@link #start()} and
+ * {@link #close()}. Hibernate reports into the innermost open scope and every scope around
+ * it, so a test can measure a single call inside a request that is measured as well:
+ * <pre>
+ * try (QueryStats stats = QueryStats.start()) {
+ *     userService.getUserById(id);
+ *     assertTrue(stats.getStatements() &lt;= 1);
+ * }
+ * </pre>
+ * Work done on other threads is only counted if they {@link #resume(QueryStats) resume} a scope,
+ * as the async work of HTTP requests (Callable results, streamed responses) does, or if it is
+ * {@link #charge(QueryStats) charged} to the scopes it was done for, as batched lookups are.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    /** Request attribute holding the stats of the current HTTP request. */
+    public static final String REQUEST_ATTRIBUTE = QueryStats.class.getName();
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    // The scope that was current on this thread before this one was opened
+    private final QueryStats previous;
+    private int statements;
+    private long jdbcNanos;
+
+    private QueryStats(QueryStats parent, QueryStats previous) {
+        this.parent = parent;
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a new scope on the current thread; close it in a finally block or with
+     * try-with-resources.
+     */
+    public static QueryStats start() {
+        QueryStats current = CURRENT.get();
+        return open(new QueryStats(current, current));
+    }
+
+    /**
+     * Opens a scope on the current thread that also counts into the given one, which may have
+     * been opened on another thread. Only one thread may count into a scope at a time.
+     */
+    public static QueryStats resume(QueryStats stats) {
+        return open(new QueryStats(stats, CURRENT.get()));
+    }
+
+    /**
+     * Opens a scope on the current thread that does not count into the scopes around it, for
+     * work done on behalf of several callers, which {@link #charge(QueryStats) charge} it to
+     * themselves.
+     */
+    public static QueryStats startDetached() {
+        return open(new QueryStats(null, CURRENT.get()));
+    }
+
+    /**
+     * Adds the statements and JDBC time of a closed scope to the innermost open scope of the
+     * current thread and every scope around it.
+     */
+    public static void charge(QueryStats stats) {
+        for (QueryStats current = CURRENT.get(); current != null; current = current.parent) {
+            current.statements += stats.statements;
+            current.jdbcNanos += stats.jdbcNanos;
+        }
+    }
+
+    private static QueryStats open(QueryStats stats) {
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the innermost open scope of the current thread, or null if there is none
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+        }
+    }
+
+    static void jdbcTime(long nanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.training.observability;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Resumes the request's {@link QueryStats} scope on the thread that runs its async work
+ * (Callable results such as login and registration, streamed exports), so the statements run
+ * there count toward the request.
+ */
+public class QueryStatsCallableInterceptor implements CallableProcessingInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryStatsCallableInterceptor.class.getName() + ".scope";
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(QueryStats.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof QueryStats stats) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryStats.resume(stats), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        // Called on the same thread as preProcess
+        if (request.getAttribute(SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof QueryStats scope) {
+            request.removeAttribute(SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.training.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryStats} scope for every HTTP request and records how many SQL statements
+ * it ran and how long they took, per endpoint. Requests above the warning threshold are
+ * logged, which is usually the first sign of an N+1 query.
+ * <p>
+ * An async request is recorded once its result has been dispatched back, so the statements of
+ * its async work (carried over by {@link QueryStatsCallableInterceptor}) are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.observability.query-stats.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.observability.query-stats.warn-threshold:10}")
+    private int warnThreshold;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryStats requestStats = isAsyncDispatch(request)
+                && request.getAttribute(QueryStats.REQUEST_ATTRIBUTE) instanceof QueryStats started ? started : null;
+        try (QueryStats stats = requestStats != null ? QueryStats.resume(requestStats) : QueryStats.start()) {
+            if (requestStats == null) {
+                requestStats = stats;
+                request.setAttribute(QueryStats.REQUEST_ATTRIBUTE, stats);
+            }
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                // Until the async work is done, the count is incomplete
+                if (!isAsyncStarted(request)) {
+                    record(request, requestStats);
+                }
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        // The matched pattern keeps the uri tag bounded (/api/v1/users/{id}, not one per id)
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.jdbc")
+                .description("Time spent executing SQL per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getJdbcTime());
+
+        if (stats.getStatements() > warnThreshold) {
+            log.warn("{} {} executed {} SQL statements ({} ms), more than the {} expected",
+                    request.getMethod(), uri, stats.getStatements(), stats.getJdbcTime().toMillis(), warnThreshold);
+        }
+    }
+}
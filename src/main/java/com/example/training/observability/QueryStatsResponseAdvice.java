@@ -0,0 +1,48 @@
+package com.example.training.observability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL statement count and JDBC time as response headers when
+ * {@code app.observability.query-stats.header-enabled} is set. Headers have to be written
+ * before the body, which is why this is not done in {@link QueryStatsFilter}.
+ */
+@RestControllerAdvice
+public class QueryStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-Query-Count";
+    public static final String JDBC_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Value("${app.observability.query-stats.header-enabled:false}")
+    private boolean headerEnabled;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return headerEnabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(QueryStats.REQUEST_ATTRIBUTE) instanceof QueryStats stats) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(JDBC_TIME_HEADER, String.valueOf(stats.getJdbcTime().toMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.training.observability;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Per-phase latency of a single HTTP request, returned in the {@code Server-Timing} response
+ * header by {@link ServerTimingFilter}. Code on the request path brackets a phase with
+ * {@link #begin()} and {@link #end(Phase, long)}:
+ * <pre>
+ * long start = ServerTiming.begin();
+ * VerifiedToken token = jwtTokenProvider.verifyToken(jwt);
+ * ServerTiming.end(ServerTiming.Phase.JWT, start);
+ * </pre>
+ * When the request is not being timed both calls are a thread-local read and nothing else.
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    /** Request attribute holding the timing of the current HTTP request. */
+    public static final String REQUEST_ATTRIBUTE = ServerTiming.class.getName();
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    public enum Phase {
+        JWT("jwt", "JWT verification"),
+        LOOKUP("lookup", "User lookup"),
+        DB("db", "SQL"),
+        JSON("json", "JSON serialization");
+
+        private final String metric;
+        private final String description;
+
+        Phase(String metric, String description) {
+            this.metric = metric;
+            this.description = description;
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private boolean visible;
+
+    ServerTiming() {
+    }
+
+    /**
+     * @return a start mark for {@link #end(Phase, long)}, or 0 if the current request is not timed
+     */
+    public static long begin() {
+        return CURRENT.get() == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Adds the time since {@code start} to the given phase of the current request.
+     */
+    public static void end(Phase phase, long start) {
+        if (start == 0L) {
+            return;
+        }
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    void set(Phase phase, Duration duration) {
+        phaseNanos[phase.ordinal()] = duration.toNanos();
+    }
+
+    boolean isVisible() {
+        return visible;
+    }
+
+    void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    /**
+     * Formats the phases, the remaining controller and service time ({@code app}) and the
+     * total time so far, all in milliseconds.
+     */
+    String headerValue() {
+        long totalNanos = System.nanoTime() - startNanos;
+        long appNanos = totalNanos;
+        StringBuilder value = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            appNanos -= nanos;
+            append(value, phase.metric, phase.description, nanos);
+        }
+        // The user lookup's own SQL is counted in both lookup and db, so this can dip below zero
+        append(value, "app", "Controller and service", Math.max(appNanos, 0L));
+        append(value, "total", "Total", totalNanos);
+        return value.toString();
+    }
+
+    private static void append(StringBuilder value, String metric, String description, long nanos) {
+        if (!value.isEmpty()) {
+            value.append(", ");
+        }
+        value.append(metric)
+                .append(";dur=").append(String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0))
+                .append(";desc=\"").append(description).append('"');
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.training.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Adds a {@link ServerTiming#HEADER} response header to requests that ask for it with the
+ * configured request header. Only callers holding the required role see it, since the lookup
+ * time tells whether a user exists.
+ * <p>
+ * The header has to go out before the body, and JSON serialization is one of the phases, so
+ * timed responses are buffered. Streamed responses (the CSV export) are excluded for that reason.
+ * Runs inside the security filter chain, just before the JWT filter (see SecurityConfig).
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Value("${app.observability.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.observability.server-timing.request-header:X-Server-Timing}")
+    private String requestHeader;
+
+    @Value("${app.observability.server-timing.required-role:ADMIN}")
+    private String requiredRole;
+
+    @Value("${app.observability.server-timing.excluded-paths:/api/v1/users/export}")
+    private String[] excludedPaths;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || request.getHeader(requestHeader) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return Arrays.stream(excludedPaths).anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async requests (login, register) write their response on the async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        ServerTiming timing = (ServerTiming) request.getAttribute(ServerTiming.REQUEST_ATTRIBUTE);
+        HttpServletResponse responseToUse = response;
+        if (timing == null) {
+            timing = new ServerTiming();
+            request.setAttribute(ServerTiming.REQUEST_ATTRIBUTE, timing);
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+
+        ServerTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            ServerTiming.unbind();
+            if (!isAsyncDispatch(request)) {
+                // Async dispatches are not authenticated again, so decide on the first one
+                timing.setVisible(hasRequiredRole());
+            }
+            if (!isAsyncStarted(request)) {
+                writeResponse(request, responseToUse, timing);
+            }
+        }
+    }
+
+    private boolean hasRequiredRole() {
+        if (!StringUtils.hasText(requiredRole)) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String authority = "ROLE_" + requiredRole;
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(granted -> authority.equals(granted.getAuthority()));
+    }
+
+    private void writeResponse(HttpServletRequest request, HttpServletResponse response, ServerTiming timing)
+            throws IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            return;
+        }
+        if (timing.isVisible()) {
+            if (request.getAttribute(QueryStats.REQUEST_ATTRIBUTE) instanceof QueryStats stats) {
+                timing.set(ServerTiming.Phase.DB, stats.getJdbcTime());
+            }
+            wrapper.setHeader(ServerTiming.HEADER, timing.headerValue());
+        }
+        wrapper.copyBodyToResponse();
+    }
+}
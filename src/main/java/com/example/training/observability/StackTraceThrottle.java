@@ -0,0 +1,35 @@
+package com.example.training.observability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits stack traces of expected failures (bad logins, expired tokens) to one per exception
+ * type and interval. The log line itself is still written every time:
+ * <pre>
+ * log.warn("JWT token error: {}", ex.getMessage(), stackTraceThrottle.sample(ex));
+ * </pre>
+ */
+@Component
+public class StackTraceThrottle {
+
+    private final Map<Class<?>, AtomicLong> nextStackTrace = new ConcurrentHashMap<>();
+
+    @Value("${app.logging.stack-trace-interval:60s}")
+    private Duration interval;
+
+    /**
+     * @return the exception if its stack trace is due, otherwise null (which SLF4J ignores)
+     */
+    public Throwable sample(Throwable ex) {
+        long now = System.nanoTime();
+        AtomicLong next = nextStackTrace.computeIfAbsent(ex.getClass(), type -> new AtomicLong(now));
+        long due = next.get();
+        return now - due >= 0 && next.compareAndSet(due, now + interval.toNanos()) ? ex : null;
+    }
+}
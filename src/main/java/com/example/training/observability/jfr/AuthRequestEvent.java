@@ -0,0 +1,18 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.training.AuthRequest")
+@Label("Auth Request")
+@Description("A login or registration, including password hashing and token generation")
+public class AuthRequestEvent extends OutcomeEvent {
+
+    @Label("Operation")
+    private final String operation;
+
+    public AuthRequestEvent(String operation) {
+        this.operation = operation;
+    }
+}
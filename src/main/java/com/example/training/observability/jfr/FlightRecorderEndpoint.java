@@ -0,0 +1,113 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts and stops a Flight Recorder recording over HTTP, one at a time:
+ * <ul>
+ *     <li>{@code GET /actuator/jfr} shows the current recording</li>
+ *     <li>{@code POST /actuator/jfr} starts one, optionally with {@code {"settings": "profile"}}</li>
+ *     <li>{@code DELETE /actuator/jfr} stops it and downloads the {@code .jfr} file</li>
+ * </ul>
+ * The application's own events ({@link OutcomeEvent} and subclasses) are part of every recording.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class FlightRecorderEndpoint {
+
+    private static final int STATUS_CONFLICT = 409;
+
+    @Value("${app.observability.jfr.default-settings:default}")
+    private String defaultSettings;
+
+    // Bounds the disk used by a recording that nobody stops
+    @Value("${app.observability.jfr.max-age:30m}")
+    private Duration maxAge;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", RecordingState.CLOSED.name());
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("name", recording.getName());
+        status.put("startTime", recording.getStartTime());
+        status.put("maxAge", recording.getMaxAge());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings)
+            throws IOException, ParseException {
+        if (recording != null) {
+            return new WebEndpointResponse<>(status(), STATUS_CONFLICT);
+        }
+
+        String settingsName = settings == null ? defaultSettings : settings;
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (NoSuchFileException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown JFR settings: " + settingsName),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        recording = new Recording(configuration);
+        recording.setName("training-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.start();
+        log.info("Started JFR recording {} with {} settings", recording.getName(), configuration.getName());
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile(recording.getName(), ".jfr");
+            recording.dump(file);
+            log.info("Stopped JFR recording {} ({} bytes)", recording.getName(), Files.size(file));
+            // The temporary file goes away once the response has been streamed
+            return new WebEndpointResponse<>(
+                    new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)),
+                    WebEndpointResponse.STATUS_OK);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
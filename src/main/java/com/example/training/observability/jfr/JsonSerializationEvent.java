@@ -0,0 +1,18 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.training.JsonSerialization")
+@Label("JSON Serialization")
+@Description("Writing a response body as JSON")
+public class JsonSerializationEvent extends OutcomeEvent {
+
+    @Label("Body Type")
+    private final Class<?> type;
+
+    public JsonSerializationEvent(Class<?> type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.training.JwtAuthentication")
+@Label("JWT Authentication")
+@Description("Authentication of a request from its bearer token, including the user lookup")
+public class JwtAuthenticationEvent extends OutcomeEvent {
+}
@@ -0,0 +1,63 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Base of the application's JFR events: a timed piece of work, the user it was done for and
+ * how it ended. Usage on a hot path:
+ * <pre>
+ * TokenVerificationEvent event = new TokenVerificationEvent();
+ * event.begin();
+ * ...
+ * event.commit(username, outcome);
+ * </pre>
+ * Without a recording that enables the event, {@link #shouldCommit()} is false, nothing is
+ * hashed or stored, and the JIT removes the allocation.
+ */
+@Category({"Training", "Application"})
+@StackTrace(false)
+public abstract class OutcomeEvent extends Event {
+
+    @Label("Username Hash")
+    @Description("First 8 bytes of the SHA-256 of the username, so one user's events can be correlated")
+    String usernameHash;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if a recording wants it.
+     * @param username the user the work was done for, or null if unknown
+     * @param outcome how the work ended
+     */
+    public void commit(String username, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.usernameHash = hash(username);
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    static String hash(String username) {
+        if (username == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(username.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
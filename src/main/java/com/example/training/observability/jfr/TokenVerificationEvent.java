@@ -0,0 +1,11 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.training.TokenVerification")
+@Label("JWT Verification")
+@Description("Signature, expiry and claims check of a JWT")
+public class TokenVerificationEvent extends OutcomeEvent {
+}
@@ -0,0 +1,18 @@
+package com.example.training.observability.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.training.UserOperation")
+@Label("User Operation")
+@Description("A UserService call, from the first query to the mapped result (transaction commit excluded)")
+public class UserOperationEvent extends OutcomeEvent {
+
+    @Label("Operation")
+    private final String operation;
+
+    public UserOperationEvent(String operation) {
+        this.operation = operation;
+    }
+}
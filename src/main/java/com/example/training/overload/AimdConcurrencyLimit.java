@@ -0,0 +1,103 @@
+package com.example.training.overload;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to measured latency, like TCP congestion control (additive
+ * increase, multiplicative decrease). While requests finish within the latency threshold and
+ * the limit is actually being used, it grows by one per limit's worth of requests. A request
+ * that is slower than the threshold or fails with a server error shrinks it by the backoff
+ * ratio, at most once per threshold period, so one slow burst does not collapse it.
+ * <p>
+ * Admission and release are lock-free: the in-flight count and the limit are CAS-updated atomics.
+ */
+public final class AimdConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // The limit as double bits, so additive increases of 1/limit accumulate
+    private final AtomicLong limit;
+    private final AtomicLong lastDecrease;
+
+    public AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.lastDecrease = new AtomicLong(System.nanoTime() - latencyThresholdNanos);
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. Every admitted request must be
+     * {@link #release released}.
+     * @return false if the request should be shed
+     */
+    public boolean tryAcquire() {
+        int currentLimit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and feeds its outcome into the limit.
+     * @param latencyNanos how long the request took
+     * @param failed whether it ended with a server error, which counts as overload
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (wasInFlight * 2 >= getLimit()) {
+            // Only grow while at least half the limit is used, or idle periods would inflate it
+            increase();
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void increase() {
+        limit.getAndUpdate(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(Math.min(maxLimit, current + 1 / current));
+        });
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last < latencyThresholdNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        limit.getAndUpdate(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(Math.max(minLimit, current * backoffRatio));
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.training.overload;
+
+import com.example.training.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Sheds load with an immediate 503 once a route group has as many requests in flight as its
+ * {@link AimdConcurrencyLimit} allows. When the database slows down, requests then fail fast
+ * instead of queueing on Tomcat threads for a connection, and the limit shrinks until the
+ * admitted requests are fast again.
+ * <p>
+ * Runs before security, so shed requests cost nothing but this check. Async requests (login,
+ * register) stay in flight until their async processing completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/v1/auth/";
+    private static final String USERS_PATH = "/api/v1/users";
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.concurrency-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${app.concurrency-limit.excluded-paths:/api/v1/users/export,/api/v1/users/import}")
+    private String[] excludedPaths;
+
+    @Value("${app.concurrency-limit.auth.initial-limit:20}")
+    private int authInitialLimit;
+
+    @Value("${app.concurrency-limit.auth.min-limit:4}")
+    private int authMinLimit;
+
+    @Value("${app.concurrency-limit.auth.max-limit:200}")
+    private int authMaxLimit;
+
+    @Value("${app.concurrency-limit.auth.latency-threshold:1s}")
+    private Duration authLatencyThreshold;
+
+    @Value("${app.concurrency-limit.users.initial-limit:40}")
+    private int usersInitialLimit;
+
+    @Value("${app.concurrency-limit.users.min-limit:4}")
+    private int usersMinLimit;
+
+    @Value("${app.concurrency-limit.users.max-limit:400}")
+    private int usersMaxLimit;
+
+    @Value("${app.concurrency-limit.users.latency-threshold:300ms}")
+    private Duration usersLatencyThreshold;
+
+    private Group auth;
+    private Group users;
+
+    @PostConstruct
+    protected void init() {
+        auth = new Group("auth", new AimdConcurrencyLimit(
+                authInitialLimit, authMinLimit, authMaxLimit, backoffRatio, authLatencyThreshold));
+        users = new Group("users", new AimdConcurrencyLimit(
+                usersInitialLimit, usersMinLimit, usersMaxLimit, backoffRatio, usersLatencyThreshold));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        // Streams run for minutes and would hold a slot and skew the latency the whole time
+        String path = request.getRequestURI();
+        return group(path) == null || Arrays.stream(excludedPaths).anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Group group = group(request.getRequestURI());
+        if (!group.limit.tryAcquire()) {
+            group.rejected.increment();
+            shed(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(group.limit, start, response));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                group.limit.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private Group group(String path) {
+        if (path.startsWith(AUTH_PATH)) {
+            return auth;
+        }
+        if (path.equals(USERS_PATH) || path.startsWith(USERS_PATH + "/")) {
+            return users;
+        }
+        return null;
+    }
+
+    private void shed(HttpServletResponse response) throws IOException {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Server is overloaded, please retry",
+                LocalDateTime.now()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private final class Group {
+
+        private final AimdConcurrencyLimit limit;
+        private final Counter rejected;
+
+        Group(String name, AimdConcurrencyLimit limit) {
+            this.limit = limit;
+            Gauge.builder("http.server.concurrency.limit", limit, AimdConcurrencyLimit::getLimit)
+                    .description("Requests the route group currently admits at once")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in_flight", limit, AimdConcurrencyLimit::getInFlight)
+                    .description("Requests of the route group being processed")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            rejected = Counter.builder("http.server.concurrency.rejected")
+                    .description("Requests shed with 503 because the route group was at its limit")
+                    .tag("group", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class ReleasingListener implements AsyncListener {
+
+        private final AimdConcurrencyLimit limit;
+        private final long start;
+        private final HttpServletResponse response;
+
+        ReleasingListener(AimdConcurrencyLimit limit, long start, HttpServletResponse response) {
+            this.limit = limit;
+            this.start = start;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // Also called after a timeout or error, so this is the only place that releases
+            limit.release(System.nanoTime() - start, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
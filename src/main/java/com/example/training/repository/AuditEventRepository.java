@@ -0,0 +1,9 @@
+package com.example.training.repository;
+
+import com.example.training.model.AuditEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+}
@@ -0,0 +1,36 @@
+package com.example.training.repository;
+
+import com.example.training.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Marks a token as used unless it already was, so that of two concurrent refreshes with
+     * the same token only one succeeds.
+     * @return 1 if this call used the token, 0 if it had been used before
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.usedAt = :now where t.tokenHash = :tokenHash and t.usedAt is null")
+    int markUsed(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    // Leaves the persistence context alone, so it can run next to pending changes of the user
+    @Modifying
+    @Query("delete from RefreshToken t where t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from RefreshToken t where t.userId = :userId and t.expiresAt <= :now")
+    int deleteExpiredByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+}
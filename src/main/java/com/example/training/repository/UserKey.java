@@ -0,0 +1,9 @@
+package com.example.training.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of a user in keyset order: the id, plus the creation time when sorting by it.
+ */
+public record UserKey(Long id, LocalDateTime createdAt) {
+}
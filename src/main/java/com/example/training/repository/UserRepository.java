@@ -1,18 +1,60 @@
 package com.example.training.repository;
 
 import com.example.training.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
-    
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    // Read model: users joined with their roles in one query, as unmanaged rows
+    String SELECT_USER_ROLE_ROWS = "select new com.example.training.repository.UserRoleRow("
+            + "u.id, u.username, u.email, u.firstName, u.lastName, r) from User u left join u.roles r ";
+
+    // Rows fetched per round trip when streaming; streams must be consumed inside a transaction
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Email cannot be a second natural id, so lookups by email go through the query cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.EMAIL_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Managed users, so they also fill the second-level cache; roles come with the same statement
+    @Query("select u from User u left join fetch u.roles where u.id in :ids")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_USER_ROLE_ROWS + "where u.id in :ids order by u.id")
+    List<UserRoleRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_USER_ROLE_ROWS + "order by u.id")
+    Stream<UserRoleRow> streamAllWithRoles();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SELECT_USER_ROLE_ROWS + "where u.updatedAt >= :since order by u.id")
+    Stream<UserRoleRow> streamAllWithRolesUpdatedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,27 @@
+package com.example.training.repository;
+
+import com.example.training.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Returns the keys of the next page of users in keyset order, without loading the users.
+     * @param sortByCreatedAt sort by created_at (ties broken by id) instead of by id only
+     * @param ascending sort direction
+     * @param after the last key of the previous page, or null for the first page
+     * @param limit maximum number of keys to return
+     * @return keys in page order
+     */
+    List<UserKey> findPageKeys(boolean sortByCreatedAt, boolean ascending, UserKey after, int limit);
+
+    /**
+     * Finds a user by its natural id. Unlike a query, the lookup is answered from the
+     * second-level cache once the user has been loaded.
+     * @param username the username
+     * @return the user with its roles, if it exists
+     */
+    Optional<User> findByUsername(String username);
+}
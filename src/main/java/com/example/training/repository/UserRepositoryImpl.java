@@ -0,0 +1,56 @@
+package com.example.training.repository;
+
+import com.example.training.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserKey> findPageKeys(boolean sortByCreatedAt, boolean ascending, UserKey after, int limit) {
+        String comparison = ascending ? ">" : "<";
+        String direction = ascending ? "asc" : "desc";
+
+        StringBuilder jpql = new StringBuilder("select new com.example.training.repository.UserKey(u.id, u.createdAt) from User u");
+        if (after != null) {
+            if (sortByCreatedAt) {
+                jpql.append(" where u.createdAt ").append(comparison).append(" :createdAt")
+                        .append(" or (u.createdAt = :createdAt and u.id ").append(comparison).append(" :id)");
+            } else {
+                jpql.append(" where u.id ").append(comparison).append(" :id");
+            }
+        }
+        jpql.append(" order by ");
+        if (sortByCreatedAt) {
+            jpql.append("u.createdAt ").append(direction).append(", ");
+        }
+        jpql.append("u.id ").append(direction);
+
+        TypedQuery<UserKey> query = entityManager.createQuery(jpql.toString(), UserKey.class)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("id", after.id());
+            if (sortByCreatedAt) {
+                query.setParameter("createdAt", after.createdAt());
+            }
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.training.repository;
+
+/**
+ * One row of a user joined with one of its roles (role is null for a user without roles).
+ * Consecutive rows with the same id belong to the same user.
+ */
+public record UserRoleRow(Long id, String username, String email, String firstName, String lastName, String role) {
+}
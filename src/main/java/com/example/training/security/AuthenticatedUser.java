@@ -0,0 +1,42 @@
+package com.example.training.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Security principal that also carries the database id of the user, so the id can be put
+ * into tokens and responses without another lookup by username.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, boolean enabled,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.id = id;
+    }
+
+    public static List<GrantedAuthority> toAuthorities(Collection<String> roles) {
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .collect(Collectors.toList());
+    }
+
+    public Set<String> getRoles() {
+        return getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                .collect(Collectors.toSet());
+    }
+}
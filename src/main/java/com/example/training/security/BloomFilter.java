@@ -0,0 +1,87 @@
+package com.example.training.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings. {@link #mightContain} never misses a value that was
+ * {@link #put}, and answers true for a value that was not with roughly the false positive rate
+ * it was sized for, as long as it holds no more than the expected number of values.
+ * <p>
+ * Reads are lock-free and may run concurrently with puts. Values cannot be removed; build a
+ * new filter instead.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedEntries how many values the filter is sized for
+     * @param falsePositiveRate the false positive rate at that many values, e.g. 0.01
+     */
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        if (expectedEntries < 1) {
+            throw new IllegalArgumentException("Expected entries must be positive: " + expectedEntries);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (LN2 * LN2));
+        words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        bitCount = words.length() * 64L;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * LN2));
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so both halves
+     * can serve as independent hashes (Kirsch-Mitzenmacher double hashing).
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.training.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that always hashes on the {@link PasswordHashingExecutor}, so the number of
+ * concurrent hashes is bounded no matter which thread asks. The calling thread waits for the
+ * hash, so login and registration call it from the MVC async executor rather than from a
+ * servlet thread.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.encodeTimer = hashTimer(meterRegistry, "encode", "success");
+        this.matchTimer = hashTimer(meterRegistry, "matches", "match");
+        this.mismatchTimer = hashTimer(meterRegistry, "matches", "mismatch");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encoded -> encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matched -> matched ? matchTimer : mismatchTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hashes on the calling thread instead of the hashing pool, for callers that bound their own
+     * hashing (the bulk import), so they do not take queue slots from logins.
+     */
+    public String encodeOnCallingThread(CharSequence rawPassword) {
+        return timed(() -> delegate.encode(rawPassword), encoded -> encodeTimer).get();
+    }
+
+    private <T> T run(Supplier<T> hash, Function<T, Timer> timerForResult) {
+        Supplier<T> timedHash = timed(hash, timerForResult);
+        if (executor.isHashingThread()) {
+            return timedHash.get();
+        }
+
+        try {
+            // The future itself times out, so join() cannot block forever
+            return executor.submit(timedHash).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static <T> Supplier<T> timed(Supplier<T> hash, Function<T, Timer> timerForResult) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = hash.get();
+            timerForResult.apply(result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation, String outcome) {
+        return Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
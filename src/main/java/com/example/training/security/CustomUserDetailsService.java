@@ -1,37 +1,166 @@
 package com.example.training.security;
 
+import com.example.training.event.UserChangedEvent;
 import com.example.training.model.User;
 import com.example.training.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final String LOOKUP_TIMER = "auth.user.lookup";
+    private static final String SOURCE_CACHE = "cache";
+    private static final String SOURCE_DATABASE = "database";
+    private static final String OUTCOME_FOUND = "found";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    private static final String OUTCOME_ERROR = "error";
+
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.user-cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.security.user-cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${app.security.user-cache.ttl:60s}")
+    private Duration cacheTtl;
+
+    private Cache<String, AuthenticatedUser> cache;
+    // Keyed by "source/outcome"; looked up on every authenticated request
+    private Map<String, Timer> lookupTimers;
+
+    @PostConstruct
+    protected void init() {
+        lookupTimers = new HashMap<>();
+        registerLookupTimer(SOURCE_CACHE, OUTCOME_FOUND);
+        registerLookupTimer(SOURCE_DATABASE, OUTCOME_FOUND);
+        registerLookupTimer(SOURCE_DATABASE, OUTCOME_NOT_FOUND);
+        registerLookupTimer(SOURCE_DATABASE, OUTCOME_ERROR);
+
+        if (!cacheEnabled) {
+            log.debug("User details cache is disabled");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+        log.debug("User details cache initialized (maximumSize={}, ttl={})", cacheMaximumSize, cacheTtl);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String source = SOURCE_DATABASE;
+        String outcome = OUTCOME_ERROR;
+        try {
+            AuthenticatedUser cached = cache == null ? null : cache.getIfPresent(username);
+            if (cached != null) {
+                source = SOURCE_CACHE;
+            } else {
+                cached = loadFromRepository(username);
+                // Load outside the cache rather than with cache.get(key, loader): the loader
+                // runs inside a ConcurrentHashMap bin lock, which pins a virtual thread for the
+                // whole query. Unknown usernames throw before the put, so misses are never cached.
+                if (cache != null) {
+                    cache.put(username, cached);
+                }
+            }
+            outcome = OUTCOME_FOUND;
+
+            // Hand out a copy: authentication erases credentials on the returned principal
+            return new AuthenticatedUser(
+                    cached.getId(),
+                    cached.getUsername(),
+                    cached.getPassword(),
+                    cached.isEnabled(),
+                    cached.getAuthorities()
+            );
+        } catch (UsernameNotFoundException e) {
+            outcome = OUTCOME_NOT_FOUND;
+            throw e;
+        } finally {
+            sample.stop(lookupTimers.get(source + "/" + outcome));
+        }
+    }
+
+    /**
+     * Loads a user by id, bypassing the user details cache, for refreshing tokens: the user is
+     * identified by id, so a renamed user keeps its session.
+     * @throws UsernameNotFoundException if the user no longer exists
+     */
+    public AuthenticatedUser loadUserById(Long id) {
+        return userRepository.findById(id)
+                .map(CustomUserDetailsService::toPrincipal)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event);
+    }
+
+    /**
+     * Evicts again once the change is committed, in case a concurrent request reloaded the
+     * previous row between the change and its commit.
+     */
+    @TransactionalEventListener
+    public void afterUserChangeCommitted(UserChangedEvent event) {
+        evict(event);
+    }
+
+    private void registerLookupTimer(String source, String outcome) {
+        lookupTimers.put(source + "/" + outcome, Timer.builder(LOOKUP_TIMER)
+                .description("Time spent loading users for authentication")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private void evict(UserChangedEvent event) {
+        if (cache != null) {
+            cache.invalidateAll(event.usernames());
+        }
+    }
+
+    private AuthenticatedUser loadFromRepository(String username) {
+        // Natural id lookup, answered by the Hibernate second-level cache when the user is in it
+        return userRepository.findByUsername(username)
+                .map(CustomUserDetailsService::toPrincipal)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    }
 
-        return new org.springframework.security.core.userdetails.User(
+    private static AuthenticatedUser toPrincipal(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
                 user.isEnabled(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList())
+                AuthenticatedUser.toAuthorities(user.getRoles())
         );
     }
-}
\ No newline at end of file
+}
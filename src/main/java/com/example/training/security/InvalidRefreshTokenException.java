@@ -0,0 +1,27 @@
+package com.example.training.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when a refresh token cannot be exchanged; answered with 401 like other
+ * authentication failures.
+ */
+public class InvalidRefreshTokenException extends AuthenticationException {
+
+    public enum Reason {
+        UNKNOWN,
+        EXPIRED,
+        REUSED
+    }
+
+    private final Reason reason;
+
+    public InvalidRefreshTokenException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.training.security;
 
+import com.example.training.observability.ServerTiming;
+import com.example.training.observability.StackTraceThrottle;
+import com.example.training.observability.jfr.JwtAuthenticationEvent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,18 +20,33 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String OUTCOME_AUTHENTICATED = "authenticated";
+    private static final String OUTCOME_REJECTED = "rejected";
+    private static final String OUTCOME_REVOKED = "revoked";
+    private static final String OUTCOME_SKIPPED = "skipped";
+    private static final String OUTCOME_ERROR = "error";
+
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final StackTraceThrottle stackTraceThrottle;
+    private final TokenRevocationList tokenRevocationList;
 
     @Value("${spring.profiles.active:}")
     private String activeProfile;
 
+    @Value("${app.security.jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    @Value("${app.security.jwt.stateless.max-token-age:300000}")
+    private long statelessMaxTokenAge;
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         // Only skip for public endpoints
@@ -39,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                path.equals("/swagger-ui.html") ||
                path.startsWith("/v3/api-docs/") ||
                path.startsWith("/api-docs/") ||
-               path.startsWith("/actuator/");
+               (path.startsWith("/actuator/") && !path.startsWith("/actuator/jfr"));
     }
 
     @Override
@@ -50,7 +68,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -59,16 +76,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
 
+        JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+        event.begin();
+        String username = null;
+        String outcome = OUTCOME_SKIPPED;
         try {
             log.debug("Processing JWT token from Authorization header");
-            username = jwtTokenProvider.extractUsername(jwt);
+            // Signature, expiry and claims are checked once here and reused below
+            long verifyStart = ServerTiming.begin();
+            VerifiedToken token = jwtTokenProvider.verifyToken(jwt);
+            ServerTiming.end(ServerTiming.Phase.JWT, verifyStart);
+            username = token.subject();
             log.debug("Extracted username from token: {}", username);
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                log.debug("Loading user details for username: {}", username);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (tokenRevocationList.isRevoked(token.tokenId())) {
+                log.warn("Revoked JWT token presented for user: {}", username);
+                outcome = OUTCOME_REVOKED;
+            } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                long lookupStart = ServerTiming.begin();
+                UserDetails userDetails = statelessEnabled ? loadUserFromClaims(token) : null;
+                if (userDetails == null) {
+                    log.debug("Loading user details for username: {}", username);
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
+                ServerTiming.end(ServerTiming.Phase.LOOKUP, lookupStart);
 
-                if (jwtTokenProvider.validateToken(jwt, userDetails)) {
+                if (userDetails.isEnabled() && jwtTokenProvider.validateToken(token, userDetails)) {
                     log.debug("JWT token is valid for user: {}", username);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -79,14 +112,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     log.debug("Authentication set in SecurityContext for user: {}", username);
+                    outcome = OUTCOME_AUTHENTICATED;
                 } else {
                     log.warn("JWT token validation failed for user: {}", username);
+                    outcome = OUTCOME_REJECTED;
                 }
             }
         } catch (Exception e) {
-            log.error("Could not set user authentication in security context", e);
+            // Mostly expired or tampered tokens, so the stack trace is only sampled
+            log.warn("Could not set user authentication in security context: {}", e.getMessage(),
+                    stackTraceThrottle.sample(e));
+            outcome = OUTCOME_ERROR;
+        } finally {
+            event.commit(username, outcome);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * In stateless mode, recent tokens are trusted as-is; older ones (or ones issued without
+     * user claims) fall back to a database lookup so role and enabled changes show up within
+     * the configured maximum token age.
+     */
+    private UserDetails loadUserFromClaims(VerifiedToken token) {
+        Date issuedAt = token.issuedAt();
+        if (issuedAt == null || System.currentTimeMillis() - issuedAt.getTime() > statelessMaxTokenAge) {
+            return null;
+        }
+        return jwtTokenProvider.extractPrincipal(token);
+    }
 }
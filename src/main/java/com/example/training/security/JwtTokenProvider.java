@@ -1,61 +1,129 @@
 package com.example.training.security;
 
+import com.example.training.observability.jfr.TokenVerificationEvent;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ENABLED = "enabled";
+
+    static final String VERIFY_TIMER = "auth.token.verify";
+    static final String OUTCOME_VALID = "valid";
+    static final String OUTCOME_EXPIRED = "expired";
+    static final String OUTCOME_BAD_SIGNATURE = "bad_signature";
+    static final String OUTCOME_MALFORMED = "malformed";
+    static final String OUTCOME_INVALID = "invalid";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.security.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.security.jwt.expiration}")
     private long jwtExpiration;
 
-    private String secretKey;
+    @Value("${app.security.jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    // Both are immutable and thread-safe, so they are built once instead of per token
+    private Key signingKey;
+    private JwtParser jwtParser;
+    // Verification runs on every request, so its timers are looked up once
+    private Map<String, Timer> verifyTimers;
 
     @PostConstruct
     protected void init() {
+        verifyTimers = Stream.of(OUTCOME_VALID, OUTCOME_EXPIRED, OUTCOME_BAD_SIGNATURE, OUTCOME_MALFORMED, OUTCOME_INVALID)
+                .collect(Collectors.toMap(Function.identity(), outcome -> Timer.builder(VERIFY_TIMER)
+                        .description("Time spent parsing and verifying JWTs")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)));
         try {
-            // Ensure the secret is at least minimally encoded
-            secretKey = Base64.getEncoder().encodeToString(jwtSecret.getBytes());
-            log.debug("JWT secret key initialized successfully");
+            signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            jwtParser = Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build();
+            log.debug("JWT signing key and parser initialized successfully");
         } catch (Exception e) {
             log.error("Failed to initialize JWT secret key", e);
             throw new RuntimeException("Failed to initialize JWT secret key", e);
         }
     }
 
+    /**
+     * @return how long issued tokens are valid, in seconds
+     */
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
+
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return generateToken(userDetails, newTokenId());
+    }
+
+    /**
+     * @param tokenId the {@code jti} of the token, for callers that need it without parsing the
+     *                token again (see {@link #newTokenId()})
+     */
+    public String generateToken(UserDetails userDetails, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        if (statelessEnabled && userDetails instanceof AuthenticatedUser user) {
+            // Everything the filter needs to authenticate the request without a user lookup
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLES, List.copyOf(user.getRoles()));
+            claims.put(CLAIM_ENABLED, user.isEnabled());
+        }
+        return generateToken(claims, userDetails, tokenId);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        return generateToken(extraClaims, userDetails, newTokenId());
+    }
+
+    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, String tokenId) {
         try {
             log.debug("Generating JWT token for user: {}", userDetails.getUsername());
+            long now = System.currentTimeMillis();
             String token = Jwts.builder()
                     .setClaims(extraClaims)
+                    // Lets a single token be revoked (see TokenRevocationList)
+                    .setId(tokenId)
                     .setSubject(userDetails.getUsername())
-                    .setIssuedAt(new Date(System.currentTimeMillis()))
-                    .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                    .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + jwtExpiration))
+                    .signWith(signingKey, SignatureAlgorithm.HS256)
                     .compact();
             log.debug("JWT token generated successfully");
             return token;
@@ -65,19 +133,88 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * @return a new, unique value for the {@code jti} claim
+     */
+    public static String newTokenId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Verifies the signature and expiry of a token and parses its claims exactly once.
+     * The signature is checked before the expiry, so the claims of an
+     * {@link ExpiredJwtException} can be trusted.
+     * @param token the compact JWT
+     * @return the verified token
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_INVALID;
+        String subject = null;
+        try {
+            VerifiedToken verified = VerifiedToken.from(parseClaims(token));
+            subject = verified.subject();
+            outcome = OUTCOME_VALID;
+            return verified;
+        } catch (ExpiredJwtException e) {
+            outcome = OUTCOME_EXPIRED;
+            throw e;
+        } catch (SecurityException e) {
+            outcome = OUTCOME_BAD_SIGNATURE;
+            throw e;
+        } catch (MalformedJwtException e) {
+            outcome = OUTCOME_MALFORMED;
+            throw e;
+        } finally {
+            sample.stop(verifyTimers.get(outcome));
+            event.commit(subject, outcome);
+        }
+    }
+
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            log.debug("Validating JWT token for user: {}", userDetails.getUsername());
-            final String username = extractUsername(token);
-            boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-            log.debug("JWT token validation result: {}", isValid);
-            return isValid;
+            return validateToken(verifyToken(token), userDetails);
         } catch (Exception e) {
-            log.error("Error validating JWT token for user: {}", userDetails.getUsername(), e);
+            log.warn("Invalid JWT token for user {}: {}", userDetails.getUsername(), e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Checks an already verified token against the loaded user without re-parsing it.
+     */
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        log.debug("Validating JWT token for user: {}", userDetails.getUsername());
+        boolean isValid = userDetails.getUsername().equals(token.subject()) && !token.isExpired();
+        log.debug("JWT token validation result: {}", isValid);
+        return isValid;
+    }
+
+    /**
+     * Builds the principal from the user claims of a verified token.
+     * @param token the verified token
+     * @return the principal, or null if the token was not issued with user claims
+     */
+    public AuthenticatedUser extractPrincipal(VerifiedToken token) {
+        Number userId = token.getClaim(CLAIM_USER_ID, Number.class);
+        List<?> roles = token.getClaim(CLAIM_ROLES, List.class);
+        Boolean enabled = token.getClaim(CLAIM_ENABLED, Boolean.class);
+        if (token.subject() == null || userId == null || roles == null || enabled == null) {
+            return null;
+        }
+
+        return new AuthenticatedUser(
+                userId.longValue(),
+                token.subject(),
+                "",
+                enabled,
+                AuthenticatedUser.toAuthorities(roles.stream().map(String::valueOf).toList())
+        );
+    }
+
     public String extractUsername(String token) {
         try {
             return extractClaim(token, Claims::getSubject);
@@ -98,7 +235,7 @@ public class JwtTokenProvider {
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         try {
-            final Claims claims = extractAllClaims(token);
+            final Claims claims = parseClaims(token);
             return claimsResolver.apply(claims);
         } catch (Exception e) {
             log.error("Error extracting claim from token", e);
@@ -106,36 +243,14 @@ public class JwtTokenProvider {
         }
     }
 
-    private Claims extractAllClaims(String token) {
+    private Claims parseClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error extracting all claims from token", e);
             throw new JwtException("Failed to extract all claims from token", e);
         }
     }
-
-    private Key getSigningKey() {
-        try {
-            // Use the properly encoded secret key
-            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-            return Keys.hmacShaKeyFor(keyBytes);
-        } catch (Exception e) {
-            log.error("Error getting signing key", e);
-            throw new JwtException("Failed to get signing key", e);
-        }
-    }
-
-    private boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            log.error("Error checking if token is expired", e);
-            return true; // Consider expired if there's an error
-        }
-    }
 }
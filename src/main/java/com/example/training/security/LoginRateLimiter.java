@@ -0,0 +1,124 @@
+package com.example.training.security;
+
+import com.example.training.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets limiting login attempts per client IP and per username, checked before the
+ * attempt is queued for the password hashing pool, so rejected attempts cost neither a user
+ * lookup nor a BCrypt verification.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the GCRA form of a token bucket): taking a token is one compare-and-set, and the time left
+ * until the next token is the Retry-After. Buckets live in Caffeine caches, which stripe their
+ * locks per hash bin, and are evicted once idle or when there are too many of them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginRateLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.login-rate-limit.per-ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${app.security.login-rate-limit.per-ip.refill-period:1m}")
+    private Duration ipRefillPeriod;
+
+    @Value("${app.security.login-rate-limit.per-username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${app.security.login-rate-limit.per-username.refill-period:1m}")
+    private Duration usernameRefillPeriod;
+
+    @Value("${app.security.login-rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${app.security.login-rate-limit.idle-timeout:10m}")
+    private Duration idleTimeout;
+
+    private Limit ipLimit;
+    private Limit usernameLimit;
+
+    @PostConstruct
+    protected void init() {
+        ipLimit = new Limit("ip", ipCapacity, ipRefillPeriod);
+        usernameLimit = new Limit("username", usernameCapacity, usernameRefillPeriod);
+        log.debug("Login rate limit {} (ip={}/{}, username={}/{})", enabled ? "enabled" : "disabled",
+                ipCapacity, ipRefillPeriod, usernameCapacity, usernameRefillPeriod);
+    }
+
+    /**
+     * Takes a token from the bucket of the client and of the username.
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquire(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        ipLimit.acquire(clientIp);
+        // Usernames are matched case-insensitively so case variants share a bucket
+        usernameLimit.acquire(username.toLowerCase(Locale.ROOT));
+    }
+
+    private final class Limit {
+
+        private final long burstNanos;
+        private final long intervalNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejectedCounter;
+
+        Limit(String name, int capacity, Duration refillPeriod) {
+            // One token per interval; a full bucket lets `capacity` attempts through at once
+            intervalNanos = refillPeriod.toNanos() / capacity;
+            burstNanos = intervalNanos * capacity;
+            buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    // An idle bucket has refilled anyway, so dropping it changes nothing
+                    .expireAfterAccess(idleTimeout.compareTo(refillPeriod) > 0 ? idleTimeout : refillPeriod)
+                    .build();
+            Gauge.builder("auth.login.rate_limit.keys", buckets, Cache::estimatedSize)
+                    .description("Clients or usernames with a login rate limit bucket")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            rejectedCounter = Counter.builder("auth.login.rate_limited")
+                    .description("Login attempts rejected before authentication")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        void acquire(String key) {
+            long now = System.nanoTime();
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = fullAt.get();
+                long next = (current - now > 0 ? current : now) + intervalNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    rejectedCounter.increment();
+                    throw new TooManyRequestsException("Too many login attempts", Duration.ofNanos(wait));
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.training.security;
+
+import com.example.training.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for CPU-heavy password hashing (BCrypt encode and verify) and
+ * nothing else: it has one thread per core, so blocking work such as database calls must not
+ * run on it. Keeping hashing apart from the request threads means a login storm queues up
+ * here, or is rejected once the queue is full, instead of starving every other endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.password-hashing.pool-size:0}")
+    private int poolSize;
+
+    @Value("${app.security.password-hashing.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${app.security.password-hashing.timeout:10s}")
+    private Duration timeout;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    protected void init() {
+        // Hashing is CPU bound, so by default use one thread per core
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new HashingThread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        log.debug("Password hashing executor initialized (threads={}, queueCapacity={})", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the task on the hashing pool. A task still queued when the timeout fires is removed
+     * from the queue, and one that only gets a thread after its deadline is skipped, since
+     * nobody waits for its result any more.
+     * @param task the task to run
+     * @return a future that fails with a ServiceUnavailableException if the task does not
+     *         finish within the configured timeout
+     * @throws ServiceUnavailableException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> {
+            if (future.isDone() || System.nanoTime() - deadline >= 0) {
+                future.completeExceptionally(new TimeoutException());
+                return;
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full, rejecting task");
+            throw new ServiceUnavailableException("Too many concurrent authentication requests, please retry", e);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof TimeoutException) {
+                // Frees the queue slot; a task already running finishes, but only hashes
+                executor.remove(runnable);
+                result.completeExceptionally(
+                        new ServiceUnavailableException("Timed out waiting for password hashing, please retry", cause));
+                return;
+            }
+            result.completeExceptionally(cause);
+        });
+        return result;
+    }
+
+    /**
+     * @return true when called from one of the hashing threads, where hashing can run inline
+     */
+    public boolean isHashingThread() {
+        return Thread.currentThread() instanceof HashingThread;
+    }
+
+    private static final class HashingThread extends Thread {
+        private HashingThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.training.security;
+
+import com.example.training.model.RefreshToken;
+import com.example.training.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates the opaque refresh tokens that renew short-lived access tokens.
+ * <p>
+ * Tokens are 256 random bits, so a plain SHA-256 is enough to store them safely and lets a
+ * token be found by its primary key; no password hashing is involved. Every exchange marks
+ * the token as used and issues a new one of the same family. If a used token is presented
+ * again, either the client or someone holding a copy of it is replaying it, and the whole
+ * family is revoked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenProvider {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.security.jwt.refresh.ttl:14d}")
+    private Duration ttl;
+
+    /**
+     * The result of exchanging a refresh token.
+     * @param userId the user the token was issued to
+     * @param refreshToken the token replacing the exchanged one
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Starts a new token family at login, dropping the user's expired tokens on the way.
+     * @return the refresh token to hand to the client
+     */
+    @Transactional
+    public String issue(Long userId) {
+        refreshTokenRepository.deleteExpiredByUserId(userId, Instant.now());
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family.
+     * @throws InvalidRefreshTokenException if the token is unknown, expired or was used before;
+     *                                      in the last case its family is revoked
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        String tokenHash = hash(token);
+        RefreshToken current = refreshTokenRepository.findById(tokenHash)
+                .orElseThrow(() -> new InvalidRefreshTokenException(
+                        InvalidRefreshTokenException.Reason.UNKNOWN, "Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException(InvalidRefreshTokenException.Reason.EXPIRED, "Refresh token expired");
+        }
+        if (refreshTokenRepository.markUsed(tokenHash, now) == 0) {
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            log.warn("Refresh token reused for user id {}, revoked its family", current.getUserId());
+            throw new InvalidRefreshTokenException(InvalidRefreshTokenException.Reason.REUSED, "Refresh token already used");
+        }
+        return new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the token and every token rotated from the same login; unknown tokens are ignored.
+     */
+    @Transactional
+    public void revokeFamily(String token) {
+        refreshTokenRepository.findById(hash(token))
+                .ifPresent(current -> refreshTokenRepository.deleteByFamilyId(current.getFamilyId()));
+    }
+
+    /**
+     * Revokes every refresh token of the user, e.g. when their password changes, so that no
+     * session started with the old password can be renewed.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.deleteByUserId(userId);
+        log.debug("Revoked {} refresh tokens of user id {}", revoked, userId);
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        refreshTokenRepository.save(new RefreshToken(hash(token), userId, familyId, now, now.plus(ttl), null));
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
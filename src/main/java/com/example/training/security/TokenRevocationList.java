@@ -0,0 +1,186 @@
+package com.example.training.security;
+
+import com.example.training.model.RevokedToken;
+import com.example.training.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory copy of the {@code revoked_tokens} table, checked for every authenticated request
+ * without touching the database.
+ * <p>
+ * Almost every token checked is not revoked, and a Bloom filter answers that from a few
+ * cache lines; only its (rare) positive answers are confirmed against the exact set. A
+ * background thread polls the table for tokens revoked on other nodes and deletes rows of
+ * tokens that have expired anyway.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.jwt.revocation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${app.security.jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.security.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.security.jwt.revocation.sync-interval:5s}")
+    private Duration syncInterval;
+
+    @Value("${app.security.jwt.revocation.sync-overlap:30s}")
+    private Duration syncOverlap;
+
+    @Value("${app.security.jwt.revocation.prune-interval:10m}")
+    private Duration pruneInterval;
+
+    // jti -> expiry of the token
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Writers (revocations, syncs, rebuilds) are rare and serialized; readers never lock
+    private final Object writeLock = new Object();
+    private volatile BloomFilter filter;
+    private Instant lastSync = Instant.EPOCH;
+    private ScheduledExecutorService scheduler;
+    private Counter falsePositiveCounter;
+
+    @PostConstruct
+    protected void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        Gauge.builder("auth.revocation.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        falsePositiveCounter = Counter.builder("auth.revocation.false_positives")
+                .description("Tokens the Bloom filter reported as revoked that were not")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        sync();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncQuietly,
+                syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneQuietly,
+                pruneInterval.toMillis(), pruneInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.debug("Token revocation list loaded {} entries (bits={}, hashes={})",
+                revoked.size(), filter.bitCount(), filter.hashCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @param tokenId the {@code jti} claim of a verified token, may be null
+     * @return true if the token was revoked on any node (as of the last sync)
+     */
+    public boolean isRevoked(String tokenId) {
+        if (!enabled || tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositiveCounter.increment();
+        return false;
+    }
+
+    /**
+     * Revokes a token on this node immediately and on the others with their next sync.
+     * @param tokenId the {@code jti} claim
+     * @param subject the user the token was issued to, or null if unknown
+     * @param expiresAt when the token expires, or null if unknown (the longest possible
+     *                  token lifetime is assumed)
+     */
+    public void revoke(String tokenId, String subject, Instant expiresAt) {
+        Instant now = Instant.now();
+        Instant expiry = expiresAt != null ? expiresAt : now.plusMillis(jwtExpiration);
+        revokedTokenRepository.save(new RevokedToken(tokenId, subject, now, expiry));
+        add(tokenId, expiry);
+    }
+
+    /**
+     * Loads tokens revoked since the last sync. The window reaches back {@code sync-overlap}
+     * further, so rows committed late or stamped by a node with a slightly different clock
+     * are still picked up; seeing a row twice is harmless.
+     */
+    void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync.equals(Instant.EPOCH) ? lastSync : lastSync.minus(syncOverlap);
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, now)) {
+            add(token.getJti(), token.getExpiresAt());
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Forgets expired tokens and rebuilds the filter without them, since a Bloom filter
+     * cannot remove entries. The filter grows if more tokens are revoked than expected.
+     */
+    void prune() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        synchronized (writeLock) {
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+        log.debug("Pruned expired revoked tokens (deleted={}, remaining={})", deleted, revoked.size());
+    }
+
+    private void add(String tokenId, Instant expiresAt) {
+        synchronized (writeLock) {
+            revoked.put(tokenId, expiresAt);
+            filter.put(tokenId);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next sync covers the missed window
+            log.warn("Could not sync revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private void pruneQuietly() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            log.warn("Could not prune revoked tokens: {}", e.getMessage());
+        }
+    }
+}
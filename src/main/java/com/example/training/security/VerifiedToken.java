@@ -0,0 +1,52 @@
+package com.example.training.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable result of verifying a JWT once: signature and expiry have already been checked
+ * by {@link JwtTokenProvider#verifyToken(String)}, so callers can read the subject, expiry
+ * and custom claims without parsing the token again.
+ */
+public record VerifiedToken(String subject, Date issuedAt, Date expiration, Map<String, Object> claims) {
+
+    public VerifiedToken {
+        issuedAt = issuedAt == null ? null : new Date(issuedAt.getTime());
+        expiration = expiration == null ? null : new Date(expiration.getTime());
+        claims = claims == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(claims));
+    }
+
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(), claims);
+    }
+
+    @Override
+    public Date issuedAt() {
+        return issuedAt == null ? null : new Date(issuedAt.getTime());
+    }
+
+    @Override
+    public Date expiration() {
+        return expiration == null ? null : new Date(expiration.getTime());
+    }
+
+    /**
+     * @return the {@code jti} claim, or null for tokens issued before tokens carried one
+     */
+    public String tokenId() {
+        return getClaim(Claims.ID, String.class);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() < System.currentTimeMillis();
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+}
@@ -8,4 +8,21 @@ public interface AuthService {
     AuthResponseDto authenticate(AuthRequestDto request);
     
     AuthResponseDto register(UserDto userDto);
+
+    /**
+     * Exchanges a refresh token for a new access and refresh token, without checking the
+     * password again.
+     */
+    AuthResponseDto refresh(String refreshToken);
+
+    /**
+     * Revokes the given access token, so it is rejected even though it has not expired yet,
+     * and the refresh token issued with it, if given.
+     */
+    void logout(String token, String refreshToken);
+
+    /**
+     * Revokes a token by its {@code jti} claim, e.g. one recorded in the audit trail at login.
+     */
+    void revokeToken(String tokenId);
 }
\ No newline at end of file
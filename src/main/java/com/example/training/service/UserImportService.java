@@ -0,0 +1,16 @@
+package com.example.training.service;
+
+import com.example.training.dto.UserImportResultDto;
+
+import java.io.Reader;
+
+public interface UserImportService {
+    /**
+     * Imports users from an NDJSON or CSV body, committing them in batches.
+     * Invalid or conflicting rows are reported per line and do not stop the import.
+     * @param reader the body to read
+     * @param csv true for CSV with a header line, false for NDJSON
+     * @return the import summary
+     */
+    UserImportResultDto importUsers(Reader reader, boolean csv);
+}
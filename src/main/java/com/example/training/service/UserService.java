@@ -1,13 +1,30 @@
 package com.example.training.service;
 
 import com.example.training.dto.UserDto;
+import com.example.training.dto.UserPageDto;
+import com.example.training.dto.UserPageRequestDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
-    List<UserDto> getAllUsers();
+    UserPageDto getAllUsers(UserPageRequestDto pageRequest);
+
+    /**
+     * Streams every user (optionally only those updated since a point in time) to the consumer
+     * in id order, without holding the full result in memory.
+     */
+    void exportUsers(LocalDateTime since, Consumer<UserDto> consumer);
     
     UserDto getUserById(Long id);
+
+    /**
+     * Returns the users with the given ids, in the order requested. Unknown ids are left out.
+     */
+    List<UserDto> getUsersByIds(List<Long> ids);
+
+    UserDto getUserByUsername(String username);
     
     UserDto createUser(UserDto userDto);
     
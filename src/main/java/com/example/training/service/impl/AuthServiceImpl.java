@@ -1,36 +1,73 @@
 package com.example.training.service.impl;
 
+import com.example.training.audit.AuditEventPublisher;
 import com.example.training.dto.AuthRequestDto;
 import com.example.training.dto.AuthResponseDto;
 import com.example.training.dto.UserDto;
+import com.example.training.exception.ServiceUnavailableException;
 import com.example.training.exception.ValidationException;
+import com.example.training.model.AuditAction;
 import com.example.training.model.User;
+import com.example.training.observability.jfr.AuthRequestEvent;
 import com.example.training.repository.UserRepository;
+import com.example.training.security.AuthenticatedUser;
+import com.example.training.security.CustomUserDetailsService;
+import com.example.training.security.InvalidRefreshTokenException;
 import com.example.training.security.JwtTokenProvider;
+import com.example.training.security.RefreshTokenProvider;
+import com.example.training.security.TokenRevocationList;
+import com.example.training.security.VerifiedToken;
 import com.example.training.service.AuthService;
 import com.example.training.service.UserService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthServiceImpl implements AuthService {
 
+    private static final String AUTH_TIMER = "auth.requests";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_BAD_CREDENTIALS = "bad_credentials";
+    private static final String OUTCOME_DISABLED = "disabled";
+    private static final String OUTCOME_REJECTED = "rejected";
+    private static final String OUTCOME_INVALID = "invalid";
+    private static final String OUTCOME_UNAVAILABLE = "unavailable";
+    private static final String OUTCOME_ERROR = "error";
+    // Issued tokens carry a UUID
+    private static final int MAX_TOKEN_ID_LENGTH = 36;
+
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final AuditEventPublisher auditEventPublisher;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenProvider refreshTokenProvider;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public AuthResponseDto authenticate(AuthRequestDto request) {
+        AuthRequestEvent event = new AuthRequestEvent("login");
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        String details = null;
         try {
             log.debug("Attempting to authenticate user: {}", request.getUsername());
 
@@ -38,33 +75,55 @@ public class AuthServiceImpl implements AuthService {
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
             log.debug("User authenticated successfully: {}", userDetails.getUsername());
 
-            User user = userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new ValidationException("User not found"));
-
-            String token = jwtTokenProvider.generateToken(userDetails);
-            log.debug("JWT token generated successfully for user: {}", userDetails.getUsername());
+            // The principal loaded during authentication already carries the id
+            Long userId = userDetails instanceof AuthenticatedUser authenticatedUser
+                    ? authenticatedUser.getId()
+                    : userRepository.findByUsername(userDetails.getUsername())
+                            .map(User::getId)
+                            .orElseThrow(() -> new ValidationException("User not found"));
 
-            return AuthResponseDto.builder()
-                    .token(token)
-                    .username(user.getUsername())
-                    .userId(user.getId())
-                    .build();
+            String tokenId = JwtTokenProvider.newTokenId();
+            AuthResponseDto response = buildResponse(userDetails, userId, tokenId);
+            // Lets an admin find and revoke the token issued by this login
+            details = "jti=" + tokenId;
+            outcome = OUTCOME_SUCCESS;
+            return response;
+        } catch (ServiceUnavailableException e) {
+            outcome = OUTCOME_UNAVAILABLE;
+            log.warn("Authentication of user {} not attempted: {}", request.getUsername(), e.getMessage());
+            throw e;
         } catch (BadCredentialsException e) {
-            log.error("Authentication failed for user: {}", request.getUsername());
+            outcome = OUTCOME_BAD_CREDENTIALS;
+            log.warn("Authentication failed for user: {}", request.getUsername());
+            throw e;
+        } catch (DisabledException e) {
+            outcome = OUTCOME_DISABLED;
+            log.warn("Authentication failed for disabled user: {}", request.getUsername());
+            throw e;
+        } catch (AuthenticationException e) {
+            outcome = OUTCOME_REJECTED;
+            log.warn("Authentication rejected for user: {}", request.getUsername());
             throw e;
         } catch (Exception e) {
             log.error("Unexpected error during authentication for user: {}", request.getUsername(), e);
             throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(AUTH_TIMER, "operation", "login", "outcome", outcome));
+            event.commit(request.getUsername(), outcome);
+            auditEventPublisher.publish(AuditAction.LOGIN, request.getUsername(), outcome, details);
         }
     }
 
     @Override
     public AuthResponseDto register(UserDto userDto) {
+        AuthRequestEvent event = new AuthRequestEvent("register");
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
         try {
             log.debug("Attempting to register new user: {}", userDto.getUsername());
 
@@ -72,14 +131,125 @@ public class AuthServiceImpl implements AuthService {
             UserDto createdUser = userService.createUser(userDto);
             log.debug("User created successfully: {}", createdUser.getUsername());
 
-            // Generate authentication token
-            AuthRequestDto authRequest = new AuthRequestDto(userDto.getUsername(), userDto.getPassword());
-            log.debug("Authenticating newly registered user: {}", userDto.getUsername());
+            // Issue the token straight from the persisted user: the password was hashed a
+            // moment ago, so loading the user and verifying it again would only repeat work
+            AuthenticatedUser principal = new AuthenticatedUser(
+                    createdUser.getId(),
+                    createdUser.getUsername(),
+                    "",
+                    true,
+                    AuthenticatedUser.toAuthorities(createdUser.getRoles())
+            );
 
-            return authenticate(authRequest);
+            AuthResponseDto response = buildResponse(principal, createdUser.getId(), JwtTokenProvider.newTokenId());
+            outcome = OUTCOME_SUCCESS;
+            return response;
+        } catch (ValidationException e) {
+            outcome = OUTCOME_INVALID;
+            log.warn("Registration rejected for user {}: {}", userDto.getUsername(), e.getMessage());
+            throw e;
+        } catch (ServiceUnavailableException e) {
+            outcome = OUTCOME_UNAVAILABLE;
+            log.warn("Registration of user {} not attempted: {}", userDto.getUsername(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error during user registration: {}", userDto.getUsername(), e);
             throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(AUTH_TIMER, "operation", "register", "outcome", outcome));
+            event.commit(userDto.getUsername(), outcome);
+        }
+    }
+
+    @Override
+    public AuthResponseDto refresh(String refreshToken) {
+        AuthRequestEvent event = new AuthRequestEvent("refresh");
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        String username = null;
+        try {
+            // The refresh token stands in for the password, so neither BCrypt nor the
+            // AuthenticationManager runs here
+            RefreshTokenProvider.Rotation rotation = refreshTokenProvider.rotate(refreshToken);
+            AuthenticatedUser user = userDetailsService.loadUserById(rotation.userId());
+            username = user.getUsername();
+            if (!user.isEnabled()) {
+                refreshTokenProvider.revokeFamily(rotation.refreshToken());
+                throw new DisabledException("User is disabled");
+            }
+
+            AuthResponseDto response = buildResponse(user, user.getId(), JwtTokenProvider.newTokenId(),
+                    rotation.refreshToken());
+            outcome = OUTCOME_SUCCESS;
+            return response;
+        } catch (InvalidRefreshTokenException e) {
+            outcome = e.getReason().name().toLowerCase(Locale.ROOT);
+            log.warn("Token refresh rejected: {}", e.getMessage());
+            throw e;
+        } catch (DisabledException e) {
+            outcome = OUTCOME_DISABLED;
+            log.warn("Token refresh rejected for disabled user: {}", username);
+            throw e;
+        } catch (AuthenticationException e) {
+            outcome = OUTCOME_REJECTED;
+            log.warn("Token refresh rejected: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Unexpected error during token refresh", e);
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(AUTH_TIMER, "operation", "refresh", "outcome", outcome));
+            event.commit(username, outcome);
+        }
+    }
+
+    @Override
+    public void logout(String token, String refreshToken) {
+        // First, so that the session ends even if the access token has expired already
+        if (refreshToken != null) {
+            refreshTokenProvider.revokeFamily(refreshToken);
+        }
+        VerifiedToken verified;
+        try {
+            verified = jwtTokenProvider.verifyToken(token);
+        } catch (ExpiredJwtException e) {
+            // Signed by us, and already rejected everywhere: there is nothing left to revoke
+            log.debug("User logged out with an expired token: {}", e.getClaims().getSubject());
+            return;
+        }
+        if (verified.tokenId() == null) {
+            throw new ValidationException("Token has no id and cannot be revoked");
         }
+        tokenRevocationList.revoke(verified.tokenId(), verified.subject(), verified.expiration().toInstant());
+        log.debug("User logged out: {}", verified.subject());
+        auditEventPublisher.publish(AuditAction.TOKEN_REVOKED, verified.subject(), OUTCOME_SUCCESS, "jti=" + verified.tokenId());
+    }
+
+    @Override
+    public void revokeToken(String tokenId) {
+        if (tokenId.isBlank() || tokenId.length() > MAX_TOKEN_ID_LENGTH) {
+            throw new ValidationException("Invalid token id");
+        }
+        tokenRevocationList.revoke(tokenId, null, null);
+        log.info("Token revoked: {}", tokenId);
+        auditEventPublisher.publish(AuditAction.TOKEN_REVOKED, null, OUTCOME_SUCCESS, "jti=" + tokenId);
+    }
+
+    private AuthResponseDto buildResponse(UserDetails userDetails, Long userId, String tokenId) {
+        return buildResponse(userDetails, userId, tokenId, refreshTokenProvider.issue(userId));
+    }
+
+    private AuthResponseDto buildResponse(UserDetails userDetails, Long userId, String tokenId, String refreshToken) {
+        String token = jwtTokenProvider.generateToken(userDetails, tokenId);
+        log.debug("JWT token generated successfully for user: {}", userDetails.getUsername());
+
+        return AuthResponseDto.builder()
+                .token(token)
+                .expiresIn(jwtTokenProvider.getExpirationSeconds())
+                .refreshToken(refreshToken)
+                .username(userDetails.getUsername())
+                .userId(userId)
+                .build();
     }
 }
@@ -0,0 +1,193 @@
+package com.example.training.service.impl;
+
+import com.example.training.dto.UserDto;
+import com.example.training.model.User;
+import com.example.training.observability.QueryStats;
+import com.example.training.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Merges concurrent lookups of single users into one {@code where id in (...)} query, the way a
+ * DataLoader does: dashboards fire dozens of {@code GET /api/v1/users/{id}} at once, and each
+ * would otherwise run its own query.
+ * <p>
+ * The first lookup to find no open batch opens one and waits up to the batch window (or until
+ * the batch is full) for others to join, then loads the whole batch, users and roles in one
+ * statement, on its own thread. The others hold no database connection while they wait.
+ * Concurrent lookups of the same id share one load. Users already in the second-level cache
+ * are returned from it without batching.
+ * <p>
+ * The batched query is charged to the {@link QueryStats} of every lookup it served, not only
+ * to the thread that ran it, so each request reports the statement it needed. Summed over
+ * requests, statements of batched lookups are therefore counted more than once.
+ * <p>
+ * Users are mapped to DTOs inside the batch's transaction: with open-in-view the leader's
+ * transaction joins its own request's persistence context, so entities would stay managed by
+ * it while other requests read them. The DTOs are shared between the callers of a batch: read
+ * them only.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserBatchLoader {
+
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.users.batch-loader.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.users.batch-loader.window:2ms}")
+    private Duration window;
+
+    @Value("${app.users.batch-loader.max-batch-size:50}")
+    private int maxBatchSize;
+
+    private final Map<Long, CompletableFuture<Loaded>> inFlight = new ConcurrentHashMap<>();
+    // Not synchronized: waiting on a monitor would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    // The batch lookups currently join, or null; guarded by lock
+    private Batch open;
+
+    private TransactionTemplate readOnlyTransaction;
+    private DistributionSummary batchSizes;
+    private Counter coalesced;
+
+    @PostConstruct
+    protected void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        batchSizes = DistributionSummary.builder("users.batch_loader.batch_size")
+                .description("Users loaded by one batched query")
+                .register(meterRegistry);
+        coalesced = Counter.builder("users.batch_loader.coalesced")
+                .description("Lookups that joined a load of the same user already in flight")
+                .register(meterRegistry);
+        log.debug("User batch loader {} (window={}, maxBatchSize={})", enabled ? "enabled" : "disabled",
+                window, maxBatchSize);
+    }
+
+    /**
+     * Loads a user with its roles, batched with concurrent lookups of other users.
+     * Must not be called inside a transaction, which would hold its connection while waiting.
+     * @return the user, or empty if it does not exist
+     */
+    public Optional<UserDto> load(Long id) {
+        if (!enabled || entityManagerFactory.getCache().contains(User.class, id)) {
+            return userRepository.findById(id).map(UserServiceImpl::mapToDto);
+        }
+
+        CompletableFuture<Loaded> result = new CompletableFuture<>();
+        CompletableFuture<Loaded> shared = inFlight.putIfAbsent(id, result);
+        if (shared != null) {
+            coalesced.increment();
+            return await(shared);
+        }
+
+        Batch batch;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Batch();
+            }
+            batch = open;
+            batch.results.put(id, result);
+            if (batch.results.size() >= maxBatchSize) {
+                open = null;
+                batchClosed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            awaitClose(batch);
+            run(batch);
+        }
+        return await(result);
+    }
+
+    private void awaitClose(Batch batch) {
+        lock.lock();
+        try {
+            long remaining = window.toNanos();
+            while (open == batch && remaining > 0) {
+                remaining = batchClosed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // Load what has been collected so far
+            Thread.currentThread().interrupt();
+        } finally {
+            if (open == batch) {
+                open = null;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void run(Batch batch) {
+        // Charged to every lookup of the batch once they have their result, the leader's included
+        try (QueryStats stats = QueryStats.startDetached()) {
+            batchSizes.record(batch.results.size());
+            Map<Long, UserDto> users = readOnlyTransaction.execute(status ->
+                    userRepository.findAllWithRolesByIdIn(batch.results.keySet()).stream()
+                            .collect(Collectors.toMap(User::getId, UserServiceImpl::mapToDto)));
+            batch.results.forEach((id, result) ->
+                    result.complete(new Loaded(Optional.ofNullable(users.get(id)), stats)));
+        } catch (RuntimeException e) {
+            batch.results.values().forEach(result -> result.completeExceptionally(e));
+        } finally {
+            batch.results.forEach(inFlight::remove);
+        }
+    }
+
+    private static Optional<UserDto> await(CompletableFuture<Loaded> result) {
+        Loaded loaded;
+        try {
+            loaded = result.join();
+        } catch (CompletionException e) {
+            // Rethrow the query's own exception, so callers see the same errors as without batching
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        QueryStats.charge(loaded.stats());
+        return loaded.user();
+    }
+
+    private record Loaded(Optional<UserDto> user, QueryStats stats) {
+    }
+
+    private static final class Batch {
+
+        // Only changed under the lock until the batch is closed
+        private final Map<Long, CompletableFuture<Loaded>> results = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.training.service.impl;
+
+import com.example.training.exception.ValidationException;
+import com.example.training.repository.UserKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of the last user on a page as an opaque cursor string.
+ * The sort and direction are part of the cursor, so it cannot be replayed with other ones.
+ */
+final class UserCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private UserCursor() {
+    }
+
+    static String encode(String sort, String direction, UserKey key) {
+        String createdAt = key.createdAt() == null ? "" : key.createdAt().toString();
+        String raw = String.join(SEPARATOR, VERSION, sort, direction, String.valueOf(key.id()), createdAt);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserKey decode(String cursor, String sort, String direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new ValidationException("Invalid cursor");
+            }
+            if (!parts[1].equals(sort) || !parts[2].equals(direction)) {
+                throw new ValidationException("Cursor does not match the requested sort and direction");
+            }
+            LocalDateTime createdAt = parts[4].isEmpty() ? null : LocalDateTime.parse(parts[4]);
+            if ("createdAt".equals(sort) && createdAt == null) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return new UserKey(Long.valueOf(parts[3]), createdAt);
+        } catch (ValidationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+}
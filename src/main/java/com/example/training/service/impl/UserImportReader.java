@@ -0,0 +1,136 @@
+package com.example.training.service.impl;
+
+import com.example.training.dto.UserDto;
+import com.example.training.exception.ValidationException;
+import com.example.training.util.AppUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an import body one line at a time, so arbitrarily large uploads never have to be
+ * held in memory. Lines that cannot be parsed are returned as rows carrying an error.
+ */
+class UserImportReader implements Iterator<UserImportReader.Row>, Closeable {
+
+    record Row(long line, UserDto user, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> csvColumns;
+    private long lineNumber;
+    private Row next;
+
+    UserImportReader(Reader reader, boolean csv, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.csv = csv;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readRow() {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        if (csv && csvColumns == null) {
+            readCsvHeader(line);
+            return readRow();
+        }
+        return csv ? parseCsv(line) : parseJson(line);
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new ValidationException("Could not read import body", e);
+        }
+    }
+
+    private void readCsvHeader(String line) {
+        List<String> header = AppUtils.parseCsvLine(line);
+        csvColumns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            csvColumns.put(header.get(i).trim(), i);
+        }
+        if (!csvColumns.containsKey("username") || !csvColumns.containsKey("email") || !csvColumns.containsKey("password")) {
+            throw new ValidationException("CSV header must contain username, email and password columns");
+        }
+    }
+
+    private Row parseJson(String line) {
+        try {
+            return new Row(lineNumber, objectMapper.readValue(line, UserDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "Malformed JSON");
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> fields = AppUtils.parseCsvLine(line);
+        UserDto user = new UserDto();
+        user.setUsername(csvField(fields, "username"));
+        user.setEmail(csvField(fields, "email"));
+        user.setPassword(csvField(fields, "password"));
+        user.setFirstName(csvField(fields, "firstName"));
+        user.setLastName(csvField(fields, "lastName"));
+        String roles = csvField(fields, "roles");
+        if (roles != null) {
+            // Roles are separated by ';' within the column
+            user.setRoles(new HashSet<>(Arrays.asList(roles.split(";"))));
+        }
+        return new Row(lineNumber, user, null);
+    }
+
+    private String csvField(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.training.service.impl;
+
+import com.example.training.dto.UserDto;
+import com.example.training.dto.UserImportErrorDto;
+import com.example.training.dto.UserImportResultDto;
+import com.example.training.model.User;
+import com.example.training.repository.UserRepository;
+import com.example.training.security.BoundedPasswordEncoder;
+import com.example.training.service.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${app.users.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.users.import.hashing-threads:0}")
+    private int hashingThreads;
+
+    // Shared by all imports, so concurrent imports together never hash on more threads than this
+    private ExecutorService hashingExecutor;
+
+    @PostConstruct
+    protected void init() {
+        // BCrypt is CPU bound; by default leave half the processors to logins and everything else
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        hashingExecutor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        log.debug("User import initialized (batchSize={}, hashingThreads={})", batchSize, threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Override
+    public UserImportResultDto importUsers(Reader reader, boolean csv) {
+        UserImportResultDto result = new UserImportResultDto();
+        List<UserImportReader.Row> batch = new ArrayList<>(batchSize);
+
+        try (UserImportReader rows = new UserImportReader(reader, csv, objectMapper)) {
+            while (rows.hasNext()) {
+                UserImportReader.Row row = rows.next();
+                result.setProcessed(result.getProcessed() + 1);
+                if (row.error() != null) {
+                    reportError(result, row, row.error());
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        result.getErrors().sort(Comparator.comparingLong(UserImportErrorDto::getLine));
+        log.info("User import finished: processed={}, imported={}, failed={}",
+                result.getProcessed(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void importBatch(List<UserImportReader.Row> batch, UserImportResultDto result) {
+        // Validate rows and reject duplicates within the batch itself
+        List<UserImportReader.Row> candidates = new ArrayList<>(batch.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (UserImportReader.Row row : batch) {
+            Set<ConstraintViolation<UserDto>> violations = validator.validate(row.user());
+            if (!violations.isEmpty()) {
+                reportError(result, row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            } else if (!usernames.add(row.user().getUsername())) {
+                reportError(result, row, "Duplicate username in import");
+            } else if (!emails.add(row.user().getEmail())) {
+                reportError(result, row, "Duplicate email in import");
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One query each for the usernames and emails of the whole batch
+        Set<String> existingUsernames = userRepository.findExistingUsernames(usernames);
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+
+        List<UserImportReader.Row> accepted = new ArrayList<>(candidates.size());
+        for (UserImportReader.Row row : candidates) {
+            if (existingUsernames.contains(row.user().getUsername())) {
+                reportError(result, row, "Username already exists");
+            } else if (existingEmails.contains(row.user().getEmail())) {
+                reportError(result, row, "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<User> users = mapToEntities(accepted);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                // Send the inserts as JDBC batches now and keep the persistence context small
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.setImported(result.getImported() + users.size());
+        } catch (DataIntegrityViolationException e) {
+            log.warn("User import batch rejected by a constraint violation", e);
+            accepted.forEach(row -> reportError(result, row, "Conflicts with a concurrent change, please retry"));
+        }
+    }
+
+    /**
+     * Hashes the passwords of a batch in parallel on the import's own threads: one at a time,
+     * BCrypt alone would take minutes for a few thousand rows.
+     */
+    private List<User> mapToEntities(List<UserImportReader.Row> rows) {
+        List<CompletableFuture<User>> users = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> mapToEntity(row.user()), hashingExecutor))
+                .toList();
+        try {
+            return users.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private User mapToEntity(UserDto userDto) {
+        User user = new User();
+        user.setUsername(userDto.getUsername());
+        user.setEmail(userDto.getEmail());
+        // Not through the hashing pool: a large import would fill the queue logins depend on and
+        // could be rejected halfway, after earlier batches were committed
+        user.setPassword(passwordEncoder.encodeOnCallingThread(userDto.getPassword()));
+        user.setFirstName(userDto.getFirstName());
+        user.setLastName(userDto.getLastName());
+        user.setRoles(userDto.getRoles() == null || userDto.getRoles().isEmpty()
+                ? new HashSet<>(Set.of("USER"))
+                : new HashSet<>(userDto.getRoles()));
+        return user;
+    }
+
+    private static void reportError(UserImportResultDto result, UserImportReader.Row row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new UserImportErrorDto(row.line(), message));
+        }
+    }
+}
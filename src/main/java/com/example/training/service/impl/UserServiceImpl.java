@@ -1,43 +1,153 @@
 package com.example.training.service.impl;
 
+import com.example.training.audit.AuditEventPublisher;
 import com.example.training.dto.UserDto;
+import com.example.training.dto.UserPageDto;
+import com.example.training.dto.UserPageRequestDto;
+import com.example.training.event.UserChangedEvent;
 import com.example.training.exception.ResourceNotFoundException;
 import com.example.training.exception.ValidationException;
+import com.example.training.model.AuditAction;
 import com.example.training.model.User;
+import com.example.training.observability.jfr.UserOperationEvent;
+import com.example.training.repository.UserKey;
 import com.example.training.repository.UserRepository;
+import com.example.training.repository.UserRoleRow;
+import com.example.training.security.RefreshTokenProvider;
 import com.example.training.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    private static final String OUTCOME_INVALID = "invalid";
+    private static final String OUTCOME_ERROR = "error";
+    // Same as the largest page of getAllUsers
+    private static final int MAX_IDS_PER_REQUEST = 100;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditEventPublisher auditEventPublisher;
+    private final UserBatchLoader userBatchLoader;
+    private final RefreshTokenProvider refreshTokenProvider;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public UserPageDto getAllUsers(UserPageRequestDto pageRequest) {
+        boolean sortByCreatedAt = "createdAt".equals(pageRequest.getSort());
+        boolean ascending = !"desc".equals(pageRequest.getDirection());
+        UserKey after = pageRequest.getCursor() == null || pageRequest.getCursor().isEmpty()
+                ? null
+                : UserCursor.decode(pageRequest.getCursor(), pageRequest.getSort(), pageRequest.getDirection());
+
+        // Fetch one extra key to find out whether another page follows
+        int limit = pageRequest.getLimit();
+        List<UserKey> keys = userRepository.findPageKeys(sortByCreatedAt, ascending, after, limit + 1);
+        boolean hasMore = keys.size() > limit;
+        if (hasMore) {
+            keys = keys.subList(0, limit);
+        }
+
+        List<UserDto> items = new ArrayList<>(keys.size());
+        if (!keys.isEmpty()) {
+            // Users and their roles for the whole page come from a single query
+            Map<Long, UserDto> usersById = mapToDtos(userRepository.findRowsByIdIn(
+                            keys.stream().map(UserKey::id).collect(Collectors.toList())))
+                    .stream()
+                    .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+            for (UserKey key : keys) {
+                UserDto user = usersById.get(key.id());
+                if (user != null) {
+                    items.add(user);
+                }
+            }
+        }
+
+        return UserPageDto.builder()
+                .items(items)
+                .nextCursor(hasMore
+                        ? UserCursor.encode(pageRequest.getSort(), pageRequest.getDirection(), keys.get(keys.size() - 1))
+                        : null)
+                .total(pageRequest.isIncludeTotal() ? userRepository.count() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(LocalDateTime since, Consumer<UserDto> consumer) {
+        try (Stream<UserRoleRow> rows = since == null
+                ? userRepository.streamAllWithRoles()
+                : userRepository.streamAllWithRolesUpdatedSince(since)) {
+            mapToDtos(rows.iterator(), consumer);
+        }
     }
 
     @Override
     public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        return mapToDto(user);
+        // Not transactional: the batch loader runs its own query, and waiting for it inside a
+        // transaction would hold a connection
+        return recorded("getUserById", null, () -> userBatchLoader.load(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id)));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<UserDto> getUsersByIds(List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_REQUEST) {
+            throw new ValidationException("At most " + MAX_IDS_PER_REQUEST + " ids can be requested at once");
+        }
+        Map<Long, User> usersById = userRepository.findAllWithRolesByIdIn(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(UserServiceImpl::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserDto getUserByUsername(String username) {
+        return recorded("getUserByUsername", username, () -> userRepository.findByUsername(username)
+                .map(UserServiceImpl::mapToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username)));
+    }
+
+    // Not transactional: the password is hashed first, so the transaction does not hold a
+    // connection while the hash waits for the hashing pool
+    @Override
     public UserDto createUser(UserDto userDto) {
+        return recorded("createUser", userDto.getUsername(), () -> {
+            String encodedPassword = passwordEncoder.encode(userDto.getPassword());
+            return transactionTemplate.execute(status -> insertUser(userDto, encodedPassword));
+        });
+    }
+
+    private UserDto insertUser(UserDto userDto, String encodedPassword) {
         // Validate if username or email already exists
         if (userRepository.existsByUsername(userDto.getUsername())) {
             throw new ValidationException("Username already exists");
@@ -47,7 +157,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User user = mapToEntity(userDto);
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        user.setPassword(encodedPassword);
         
         // Set default role if none provided
         if (user.getRoles().isEmpty()) {
@@ -55,12 +165,23 @@ public class UserServiceImpl implements UserService {
         }
 
         User savedUser = userRepository.save(user);
+        auditEventPublisher.publish(AuditAction.USER_CREATED, savedUser.getUsername(), OUTCOME_SUCCESS, null);
         return mapToDto(savedUser);
     }
 
+    // Not transactional, for the same reason as createUser
     @Override
-    @Transactional
     public UserDto updateUser(Long id, UserDto userDto) {
+        return recorded("updateUser", userDto.getUsername(), () -> {
+            // Only update password if provided
+            String encodedPassword = userDto.getPassword() != null && !userDto.getPassword().isEmpty()
+                    ? passwordEncoder.encode(userDto.getPassword())
+                    : null;
+            return transactionTemplate.execute(status -> applyUpdate(id, userDto, encodedPassword));
+        });
+    }
+
+    private UserDto applyUpdate(Long id, UserDto userDto, String encodedPassword) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
@@ -75,12 +196,14 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("Email already exists");
         }
 
+        String previousUsername = user.getUsername();
         user.setUsername(userDto.getUsername());
         user.setEmail(userDto.getEmail());
         
-        // Only update password if provided
-        if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        if (encodedPassword != null) {
+            user.setPassword(encodedPassword);
+            // Sessions started with the old password must not be renewed with it
+            refreshTokenProvider.revokeAllForUser(user.getId());
         }
         
         user.setFirstName(userDto.getFirstName());
@@ -92,19 +215,57 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.of(previousUsername, updatedUser.getUsername()));
+        auditEventPublisher.publish(AuditAction.USER_UPDATED, updatedUser.getUsername(), OUTCOME_SUCCESS,
+                previousUsername.equals(updatedUser.getUsername()) ? null : "renamed from " + previousUsername);
         return mapToDto(updatedUser);
     }
 
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
+        recorded("deleteUser", null, () -> removeUser(id));
+    }
+
+    private String removeUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.of(user.getUsername()));
+        auditEventPublisher.publish(AuditAction.USER_DELETED, user.getUsername(), OUTCOME_SUCCESS, null);
+        return user.getUsername();
+    }
+
+    /**
+     * Runs a single-user operation as a {@link UserOperationEvent}. Without a username, the one
+     * of the user returned (a DTO or a plain username) is recorded.
+     */
+    private <T> T recorded(String operation, String username, Supplier<T> action) {
+        UserOperationEvent event = new UserOperationEvent(operation);
+        event.begin();
+        String outcome = OUTCOME_ERROR;
+        T result = null;
+        try {
+            result = action.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } catch (ResourceNotFoundException e) {
+            outcome = OUTCOME_NOT_FOUND;
+            throw e;
+        } catch (ValidationException e) {
+            outcome = OUTCOME_INVALID;
+            throw e;
+        } finally {
+            if (username == null) {
+                username = result instanceof UserDto user ? user.getUsername()
+                        : result instanceof String name ? name : null;
+            }
+            event.commit(username, outcome);
         }
-        userRepository.deleteById(id);
     }
 
-    private UserDto mapToDto(User user) {
+    // Also used by UserBatchLoader, which maps inside its own transaction
+    static UserDto mapToDto(User user) {
         UserDto userDto = new UserDto();
         userDto.setId(user.getId());
         userDto.setUsername(user.getUsername());
@@ -112,7 +273,47 @@ public class UserServiceImpl implements UserService {
         // Don't map password for security reasons
         userDto.setFirstName(user.getFirstName());
         userDto.setLastName(user.getLastName());
-        userDto.setRoles(user.getRoles());
+        // Copy so the DTO does not hold on to the Hibernate-managed collection
+        userDto.setRoles(new HashSet<>(user.getRoles()));
+        return userDto;
+    }
+
+    private List<UserDto> mapToDtos(List<UserRoleRow> rows) {
+        List<UserDto> users = new ArrayList<>();
+        mapToDtos(rows.iterator(), users::add);
+        return users;
+    }
+
+    /**
+     * Folds user/role rows into DTOs. Rows of the same user must be consecutive, so each user
+     * is complete once the id changes.
+     */
+    private void mapToDtos(Iterator<UserRoleRow> rows, Consumer<UserDto> consumer) {
+        UserDto current = null;
+        while (rows.hasNext()) {
+            UserRoleRow row = rows.next();
+            if (current == null || !current.getId().equals(row.id())) {
+                if (current != null) {
+                    consumer.accept(current);
+                }
+                current = mapToDto(row);
+            }
+            if (row.role() != null) {
+                current.getRoles().add(row.role());
+            }
+        }
+        if (current != null) {
+            consumer.accept(current);
+        }
+    }
+
+    private UserDto mapToDto(UserRoleRow row) {
+        UserDto userDto = new UserDto();
+        userDto.setId(row.id());
+        userDto.setUsername(row.username());
+        userDto.setEmail(row.email());
+        userDto.setFirstName(row.firstName());
+        userDto.setLastName(row.lastName());
         return userDto;
     }
 
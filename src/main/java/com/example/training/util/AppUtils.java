@@ -2,11 +2,11 @@ package com.example.training.util;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Utility class for common application functions
@@ -14,7 +14,6 @@ import java.time.format.DateTimeFormatter;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class AppUtils {
 
-    private static final Logger log = LoggerFactory.getLogger(AppUtils.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -29,17 +28,6 @@ public class AppUtils {
         return dateTime.format(DATE_FORMATTER);
     }
     
-    /**
-     * Log sensitive operations for audit purposes
-     * @param operation the operation being performed
-     * @param username the user performing the operation
-     * @param details additional details about the operation
-     */
-    public static void logAudit(String operation, String username, String details) {
-        log.info("AUDIT: Operation=[{}], User=[{}], Details=[{}], Time=[{}]", 
-                operation, username, details, formatDateTime(LocalDateTime.now()));
-    }
-    
     /**
      * Truncate a string to a maximum length
      * @param input the input string
@@ -52,4 +40,52 @@ public class AppUtils {
         }
         return input.substring(0, maxLength) + "...";
     }
-}
\ No newline at end of file
+
+    /**
+     * Escape a value for a CSV field, quoting it when it contains a separator, quote or line break
+     * @param value the raw value
+     * @return the escaped value, or an empty string for null
+     */
+    public static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Split a single CSV line into fields, honouring double-quoted fields and escaped quotes
+     * @param line the CSV line (without the line break)
+     * @return the unescaped field values
+     */
+    public static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
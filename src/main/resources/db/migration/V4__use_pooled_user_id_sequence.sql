@@ -0,0 +1,4 @@
+-- Hibernate allocates user ids from this sequence in blocks of 50 (pooled optimizer),
+-- which allows inserts into users and user_roles to be sent as JDBC batches.
+-- The column default still draws from the same sequence, so plain SQL inserts stay safe.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
@@ -0,0 +1,15 @@
+-- Written in batches by the background audit writer (see audit.AuditEventWriter).
+-- The sequence steps by 50 to match the pooled id generator, as for users.
+CREATE TABLE audit_events (
+    id BIGSERIAL PRIMARY KEY,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    actor VARCHAR(50),
+    subject VARCHAR(50),
+    outcome VARCHAR(20) NOT NULL,
+    details VARCHAR(255)
+);
+
+ALTER SEQUENCE audit_events_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_audit_events_occurred_at ON audit_events (occurred_at);
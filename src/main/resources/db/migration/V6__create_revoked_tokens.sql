@@ -0,0 +1,11 @@
+-- Mirrored in memory by every node (see security.TokenRevocationList), which polls for rows
+-- revoked since its last sync and deletes rows once the token has expired.
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(36) PRIMARY KEY,
+    subject VARCHAR(50),
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,5 @@
+-- Keyset pagination by creation time (idx_users_created_at_id, V3) compares created_at, so a
+-- null one would drop its row from every page and make its cursor invalid.
+-- Rows without one get their last update time, or failing that the migration time.
+UPDATE users SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
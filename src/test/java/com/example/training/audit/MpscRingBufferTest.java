@@ -0,0 +1,85 @@
+package com.example.training.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void shouldRejectOffersWhenFullAndAcceptAgainAfterDrain() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        List<Integer> drained = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        boolean acceptedWhenFull = buffer.offer(4);
+        int count = buffer.drain(drained::add, 3);
+        boolean acceptedAfterDrain = buffer.offer(5);
+
+        // Assert
+        assertEquals(4, buffer.capacity());
+        assertFalse(acceptedWhenFull);
+        assertEquals(3, count);
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(acceptedAfterDrain);
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    void shouldDeliverEveryAcceptedElementExactlyOnceWithConcurrentProducers() throws Exception {
+        // Arrange
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> accepted = new ArrayList<>();
+        Set<Integer> received = new HashSet<>();
+        int[] duplicates = new int[1];
+
+        // Act
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            accepted.add(executor.submit(() -> {
+                start.await();
+                int count = 0;
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(base + i)) {
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        start.countDown();
+        while (!accepted.stream().allMatch(Future::isDone)) {
+            buffer.drain(element -> duplicates[0] += received.add(element) ? 0 : 1, 256);
+        }
+        buffer.drain(element -> duplicates[0] += received.add(element) ? 0 : 1, Integer.MAX_VALUE);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        int totalAccepted = 0;
+        for (Future<Integer> future : accepted) {
+            totalAccepted += future.get();
+        }
+        assertEquals(0, duplicates[0]);
+        assertEquals(totalAccepted, received.size());
+        assertEquals(0, buffer.size());
+    }
+}
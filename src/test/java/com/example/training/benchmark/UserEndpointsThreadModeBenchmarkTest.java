@@ -0,0 +1,189 @@
+package com.example.training.benchmark;
+
+import com.example.training.TrainingApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares throughput and latency of the /api/v1/users endpoints with Tomcat on platform
+ * threads and on virtual threads. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark} (and {@code -Pjava21} to include the virtual thread run).
+ * Both runs cap Tomcat at the same small platform pool so the difference comes from the
+ * thread model, not from pool sizing.
+ */
+@Tag("benchmark")
+class UserEndpointsThreadModeBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 500);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 200);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup", 1_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 5_000);
+    private static final int TOMCAT_MAX_THREADS = Integer.getInteger("benchmark.tomcat-threads", 20);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @Test
+    void compareThreadModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            System.out.println("Skipping the virtual thread run: Java " + Runtime.version().feature()
+                    + " does not support virtual threads (build with -Pjava21)");
+        }
+
+        System.out.printf("%n%-10s %-22s %10s %10s %10s %10s%n", "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.println(result);
+        }
+        for (Result result : results) {
+            assertEquals(0, result.errors(), "Requests failed in " + result);
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TrainingApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.jmx.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        // Measures raw throughput, so nothing is shed
+                        "--app.concurrency-limit.enabled=false",
+                        "--logging.level.com.example.training=WARN")) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            String token = registerAdmin(baseUrl);
+            seedUsers(baseUrl, token);
+
+            URI page = URI.create(baseUrl + "/users?limit=20");
+            URI byId = URI.create(baseUrl + "/users/1");
+            measure(token, page, WARMUP_REQUESTS);
+            measure(token, byId, WARMUP_REQUESTS);
+
+            Result pageResult = measure(token, page, REQUESTS).named(mode, "GET /users?limit=20");
+            Result byIdResult = measure(token, byId, REQUESTS).named(mode, "GET /users/{id}");
+            System.out.println(pageResult);
+            System.out.println(byIdResult);
+            return pageResult.combine(byIdResult);
+        }
+    }
+
+    private String registerAdmin(String baseUrl) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/register"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"benchmark\",\"email\":\"benchmark@example.com\","
+                                + "\"password\":\"benchmark1\",\"roles\":[\"ADMIN\"]}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+    }
+
+    private void seedUsers(String baseUrl, String token) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < USERS; i++) {
+            body.append("{\"username\":\"user").append(i)
+                    .append("\",\"email\":\"user").append(i)
+                    .append("@example.com\",\"password\":\"password1\"}\n");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/import"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private Result measure(String token, URI uri, int requests) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures.add(clients.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result("", "", requests, elapsed, latencies, errors.get());
+    }
+
+    private record Result(String mode, String endpoint, int requests, long elapsedNanos, long[] latencies, int errors) {
+
+        Result named(String mode, String endpoint) {
+            return new Result(mode, endpoint, requests, elapsedNanos, latencies, errors);
+        }
+
+        Result combine(Result other) {
+            long[] all = Arrays.copyOf(latencies, latencies.length + other.latencies.length);
+            System.arraycopy(other.latencies, 0, all, latencies.length, other.latencies.length);
+            return new Result(mode, "both", requests + other.requests, elapsedNanos + other.elapsedNanos, all, errors + other.errors);
+        }
+
+        double throughput() {
+            return requests / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %-22s %10.0f %10.2f %10.2f %10d",
+                    mode, endpoint, throughput(), percentileMillis(50), percentileMillis(99), errors);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.training.config;
+
+import com.example.training.dto.UserDto;
+import com.example.training.model.User;
+import com.example.training.repository.UserRepository;
+import com.example.training.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two H2 databases stand in for the primary and the replica. Replication is simulated by
+ * copying the primary into the replica, and lag by changing a row on the replica only.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.replica.read-your-writes-window=1m",
+        // Cached users would hide which database a read went to
+        "app.entity-cache.enabled=false",
+        // Keeps the background audit writer off the primary while it is copied to the replica
+        "app.security.audit.enabled=false"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        user = new User();
+        user.setUsername("routed");
+        user.setEmail("routed@example.com");
+        user.setPassword("encoded_password");
+        user.setFirstName("Primary");
+        user.setRoles(Set.of("USER"));
+        user = userRepository.save(user);
+
+        replicate();
+        // The replica lags behind: it still has the previous first name
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.executeUpdate("update users set first_name = 'Replica'");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReadFromReplicaAndWriteToPrimary() {
+        // Act
+        UserDto read = userService.getUserByUsername("routed");
+        UserDto updated = userService.updateUser(user.getId(), new UserDto(
+                null, "routed", "routed@example.com", null, "Updated", null, new HashSet<>(Set.of("USER"))));
+
+        // Assert
+        assertEquals("Replica", read.getFirstName());
+        // Updates load the user in their read-write transaction, from the primary
+        assertEquals("Updated", updated.getFirstName());
+        assertEquals("Updated", new JdbcTemplate(primaryDataSource)
+                .queryForObject("select first_name from users where id = ?", String.class, user.getId()));
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("routed", null, List.of()));
+
+        // Act
+        userService.updateUser(user.getId(), new UserDto(
+                null, "routed", "routed@example.com", null, "Updated", null, new HashSet<>(Set.of("USER"))));
+        UserDto own = userService.getUserByUsername("routed");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("someone-else", null, List.of()));
+        UserDto other = userService.getUserByUsername("routed");
+
+        // Assert
+        assertEquals("Updated", own.getFirstName());
+        assertEquals("Replica", other.getFirstName());
+    }
+
+    private void replicate() throws SQLException {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("script", String.class);
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
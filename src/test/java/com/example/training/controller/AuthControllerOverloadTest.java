@@ -0,0 +1,99 @@
+package com.example.training.controller;
+
+import com.example.training.dto.AuthRequestDto;
+import com.example.training.dto.AuthResponseDto;
+import com.example.training.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Logins beyond what the MVC async executor can run or queue are rejected instead of queuing
+ * without limit. The executor takes one running and one queued login here.
+ */
+// Neither the login rate limit nor the concurrency limit may shed the logins first
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.task.execution.pool.core-size=1",
+        "spring.task.execution.pool.max-size=1",
+        "spring.task.execution.pool.queue-capacity=1",
+        "app.security.login-rate-limit.enabled=false",
+        "app.concurrency-limit.enabled=false"})
+@ActiveProfiles("test")
+class AuthControllerOverloadTest {
+
+    private static final int LOGINS = 4;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private AuthService authService;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void login_ShouldAnswer503WhenAsyncExecutorIsSaturated() throws Exception {
+        // Arrange: every login holds its thread until released
+        CountDownLatch started = new CountDownLatch(1);
+        when(authService.authenticate(any(AuthRequestDto.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return new AuthResponseDto();
+        });
+
+        // Act
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            responses.add(client.sendAsync(login("user" + i), HttpResponse.BodyHandlers.ofString()));
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // The rejected logins are answered while the others still wait
+        long answered = 0;
+        for (int attempt = 0; attempt < 100 && answered < LOGINS - 2; attempt++) {
+            Thread.sleep(50);
+            answered = responses.stream().filter(CompletableFuture::isDone).count();
+        }
+        release.countDown();
+
+        // Assert
+        List<Integer> statuses = responses.stream().map(response -> response.join().statusCode()).toList();
+        assertEquals(LOGINS - 2, answered);
+        assertEquals(2, statuses.stream().filter(status -> status == 200).count(), statuses::toString);
+        assertEquals(LOGINS - 2, statuses.stream().filter(status -> status == 503).count(), statuses::toString);
+        responses.stream().map(CompletableFuture::join).filter(response -> response.statusCode() == 503)
+                .forEach(response -> assertEquals("1", response.headers().firstValue("Retry-After").orElse(null)));
+    }
+
+    private HttpRequest login(String username) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"password123\"}"))
+                .build();
+    }
+}
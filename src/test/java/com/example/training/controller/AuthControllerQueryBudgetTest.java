@@ -0,0 +1,76 @@
+package com.example.training.controller;
+
+import com.example.training.model.User;
+import com.example.training.observability.QueryStatsResponseAdvice;
+import com.example.training.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.training.support.QueryBudget.statementsAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login runs its database work asynchronously; its statements must still be counted.
+ */
+@SpringBootTest(properties = "app.observability.query-stats.header-enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "login-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setRoles(Set.of("USER"));
+        userRepository.save(user);
+    }
+
+    @Test
+    void login_ShouldCountStatementsOfAsyncWork() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password123\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                // Roles of the user; pruning expired refresh tokens; saving the new one (assigned id: select, insert)
+                .andExpect(statementsAtMost(4))
+                .andReturn();
+
+        // The refresh token insert at least
+        String statements = result.getResponse().getHeader(QueryStatsResponseAdvice.STATEMENTS_HEADER);
+        assertNotNull(statements);
+        assertTrue(Integer.parseInt(statements) >= 1, statements);
+    }
+}
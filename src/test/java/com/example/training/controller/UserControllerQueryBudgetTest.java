@@ -0,0 +1,89 @@
+package com.example.training.controller;
+
+import com.example.training.model.User;
+import com.example.training.repository.UserRepository;
+import com.example.training.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.training.support.QueryBudget.statementsAtMost;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when a user endpoint runs more SQL statements than it needs.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private AuthenticatedUser admin;
+
+    @BeforeEach
+    void setUp() {
+        String username = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded_password");
+        user.setRoles(Set.of("USER", "ADMIN"));
+        user = userRepository.save(user);
+        admin = new AuthenticatedUser(user.getId(), username, "", true,
+                AuthenticatedUser.toAuthorities(List.of("USER", "ADMIN")));
+    }
+
+    @Test
+    void getCurrentUser_ShouldRunOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/users/me").with(user(admin)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void getUserById_ShouldRunOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId()).with(user(admin)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void getUsersByIds_ShouldRunOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/users").param("ids", user.getId() + ",0").with(user(admin)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void getAllUsers_ShouldRunTwoStatements() throws Exception {
+        mockMvc.perform(get("/api/v1/users").param("limit", "20").with(user(admin)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(2));
+    }
+
+    @Test
+    void deleteUser_ShouldStayWithinBudget() throws Exception {
+        // Load with roles, delete the roles, delete the user
+        mockMvc.perform(delete("/api/v1/users/{id}", user.getId()).with(user(admin)))
+                .andExpect(status().isNoContent())
+                .andExpect(statementsAtMost(3));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.training.controller;
+
+import com.example.training.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExportExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserExportExecutor exportExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exportExecutor = new UserExportExecutor(meterRegistry);
+        ReflectionTestUtils.setField(exportExecutor, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(exportExecutor, "timeout", Duration.ofHours(1));
+        exportExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportExecutor.shutdown();
+    }
+
+    @Test
+    void shouldStreamOnExportThreadWithExportTimeout() throws Exception {
+        // Arrange
+        CompletableFuture<String> thread = new CompletableFuture<>();
+
+        // Act
+        MockHttpServletRequest request = startExport(() -> {
+            thread.complete(Thread.currentThread().getName());
+            return null;
+        });
+
+        // Assert
+        assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("user-export-"));
+        assertEquals(Duration.ofHours(1).toMillis(), request.getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void shouldRejectExportsBeyondLimitUntilOneCompletes() throws Exception {
+        // Arrange
+        MockHttpServletRequest running = startExport(() -> null);
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> exportExecutor.prepare(new MockHttpServletRequest()));
+        assertEquals(1, meterRegistry.get("users.export.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("users.export.active").gauge().value());
+
+        running.getAsyncContext().complete();
+        assertEquals(0, meterRegistry.get("users.export.active").gauge().value());
+        startExport(() -> null);
+    }
+
+    private MockHttpServletRequest startExport(Callable<Object> body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        exportExecutor.prepare(request);
+        asyncManager.startCallableProcessing(body);
+        return request;
+    }
+}
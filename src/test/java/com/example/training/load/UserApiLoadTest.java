@@ -0,0 +1,248 @@
+package com.example.training.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test: boots the application on the H2 {@code test} profile and drives a
+ * mix of auth and user endpoints at a fixed concurrency for a fixed time. Prints throughput
+ * and p50/p95/p99 latency per endpoint and fails when an endpoint has errors or exceeds its
+ * latency budget. Excluded from the default build; run with {@code mvn test -Pload}.
+ *
+ * <p>Budgets are in milliseconds and can be overridden per endpoint, e.g.
+ * {@code -Dload.budget.users-me.p99=150}.
+ */
+@Tag("load")
+// All logins come from one client, which the login rate limit would throttle, and the
+// latency budgets are about the endpoints, not about how much load would be shed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.security.login-rate-limit.enabled=false",
+        "app.concurrency-limit.enabled=false"})
+@ActiveProfiles("test")
+class UserApiLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 50);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 30));
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final String PASSWORD = "password1";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    private String baseUrl;
+    private String token;
+
+    @Test
+    void endpointsShouldStayWithinLatencyBudgets() throws Exception {
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        token = register("loadadmin", "[\"ADMIN\"]");
+        seedUsers();
+
+        // Weighted like production traffic: mostly authenticated reads, some logins and signups
+        List<Endpoint> mix = List.of(
+                new Endpoint("auth-login", 10, 1_000, 2_000, this::login),
+                new Endpoint("auth-register", 5, 1_000, 2_000, this::registerNext),
+                new Endpoint("users-me", 35, 200, 500, () -> get("/users/me")),
+                new Endpoint("users-by-id", 30, 200, 500,
+                        () -> get("/users/" + (1 + ThreadLocalRandom.current().nextInt(USERS)))),
+                new Endpoint("users-list", 20, 300, 750, () -> get("/users?limit=20")));
+
+        drive(mix, WARMUP);
+        mix.forEach(Endpoint::reset);
+        long elapsedNanos = drive(mix, DURATION);
+
+        System.out.printf("%n%-15s %8s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+        List<String> violations = new ArrayList<>();
+        for (Endpoint endpoint : mix) {
+            long[] latencies = endpoint.sortedLatencies();
+            double p50 = percentileMillis(latencies, 50);
+            double p95 = percentileMillis(latencies, 95);
+            double p99 = percentileMillis(latencies, 99);
+            System.out.printf("%-15s %8d %8.1f %8.1f %8.1f %8.1f %8d%n",
+                    endpoint.name, latencies.length, latencies.length / (elapsedNanos / 1e9),
+                    p50, p95, p99, endpoint.errors.sum());
+
+            if (endpoint.errors.sum() > 0) {
+                violations.add(endpoint.name + ": " + endpoint.errors.sum() + " failed requests");
+            }
+            if (p95 > endpoint.p95Budget) {
+                violations.add(String.format("%s: p95 %.1f ms > budget %d ms", endpoint.name, p95, endpoint.p95Budget));
+            }
+            if (p99 > endpoint.p99Budget) {
+                violations.add(String.format("%s: p99 %.1f ms > budget %d ms", endpoint.name, p99, endpoint.p99Budget));
+            }
+        }
+
+        assertTrue(violations.isEmpty(), "Load test budgets exceeded:\n" + String.join("\n", violations));
+    }
+
+    private long drive(List<Endpoint> mix, Duration duration) throws Exception {
+        int totalWeight = mix.stream().mapToInt(endpoint -> endpoint.weight).sum();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        pick(mix, totalWeight).call();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Endpoint pick(List<Endpoint> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : mix) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private void seedUsers() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < USERS; i++) {
+            body.append("{\"username\":\"load").append(i)
+                    .append("\",\"email\":\"load").append(i)
+                    .append("@example.com\",\"password\":\"").append(PASSWORD).append("\"}\n");
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/import"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private String register(String username, String roles) throws Exception {
+        HttpResponse<String> response = post("/auth/register", "{\"username\":\"" + username
+                + "\",\"email\":\"" + username + "@example.com\",\"password\":\"" + PASSWORD
+                + "\",\"roles\":" + roles + "}");
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+    }
+
+    private HttpResponse<String> registerNext() throws Exception {
+        String username = "signup" + registrations.incrementAndGet();
+        return post("/auth/register", "{\"username\":\"" + username + "\",\"email\":\"" + username
+                + "@example.com\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    private HttpResponse<String> login() throws Exception {
+        return post("/auth/login", "{\"username\":\"load" + ThreadLocalRandom.current().nextInt(USERS)
+                + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double percentileMillis(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> send() throws Exception;
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+        private final int weight;
+        private final long p95Budget;
+        private final long p99Budget;
+        private final Call call;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder errors = new LongAdder();
+
+        private Endpoint(String name, int weight, long p95Budget, long p99Budget, Call call) {
+            this.name = name;
+            this.weight = weight;
+            this.p95Budget = Long.getLong("load.budget." + name + ".p95", p95Budget);
+            this.p99Budget = Long.getLong("load.budget." + name + ".p99", p99Budget);
+            this.call = call;
+        }
+
+        private void call() {
+            long start = System.nanoTime();
+            try {
+                if (call.send().statusCode() != 200) {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+            latencies.add(System.nanoTime() - start);
+        }
+
+        private void reset() {
+            latencies.clear();
+            errors.reset();
+        }
+
+        private long[] sortedLatencies() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
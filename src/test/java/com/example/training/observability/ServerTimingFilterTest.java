@@ -0,0 +1,107 @@
+package com.example.training.observability;
+
+import com.example.training.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private ServerTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "requestHeader", "X-Server-Timing");
+        ReflectionTestUtils.setField(filter, "requiredRole", "ADMIN");
+        ReflectionTestUtils.setField(filter, "excludedPaths", new String[]{"/api/v1/users/export"});
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAddHeaderForRequestedTimingAndRequiredRole() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = timedRequest("/api/v1/users/me");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, authenticateAs("ADMIN"));
+
+        // Assert
+        String header = response.getHeader(ServerTiming.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("jwt;dur="), header);
+        assertTrue(header.contains("app;dur="), header);
+        assertTrue(header.contains("total;dur="), header);
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void shouldNotAddHeaderWithoutRequiredRole() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = timedRequest("/api/v1/users/me");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, authenticateAs("USER"));
+
+        // Assert
+        assertNull(response.getHeader(ServerTiming.HEADER));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void shouldNotTimeRequestsWithoutHeaderOrOnExcludedPaths() throws Exception {
+        // Arrange
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        MockHttpServletRequest export = timedRequest("/api/v1/users/export");
+        MockHttpServletResponse plainResponse = new MockHttpServletResponse();
+        MockHttpServletResponse exportResponse = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(plain, plainResponse, authenticateAs("ADMIN"));
+        filter.doFilter(export, exportResponse, authenticateAs("ADMIN"));
+
+        // Assert
+        assertNull(plainResponse.getHeader(ServerTiming.HEADER));
+        assertNull(exportResponse.getHeader(ServerTiming.HEADER));
+        assertNull(plain.getAttribute(ServerTiming.REQUEST_ATTRIBUTE));
+        assertEquals(0L, ServerTiming.begin());
+    }
+
+    private MockHttpServletRequest timedRequest(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("X-Server-Timing", "1");
+        return request;
+    }
+
+    /**
+     * Stands in for the JWT filter and controller: authenticates, records a phase and writes a body.
+     */
+    private FilterChain authenticateAs(String role) {
+        return (request, response) -> {
+            AuthenticatedUser user = new AuthenticatedUser(
+                    1L, "testuser", "", true, AuthenticatedUser.toAuthorities(List.of(role)));
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            long start = ServerTiming.begin();
+            ServerTiming.end(ServerTiming.Phase.JWT, start);
+            response.getWriter().write("{}");
+        };
+    }
+}
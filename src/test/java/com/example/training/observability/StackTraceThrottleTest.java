@@ -0,0 +1,40 @@
+package com.example.training.observability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackTraceThrottleTest {
+
+    @Test
+    void shouldSampleOneStackTracePerExceptionTypeAndInterval() {
+        // Arrange
+        StackTraceThrottle throttle = new StackTraceThrottle();
+        ReflectionTestUtils.setField(throttle, "interval", Duration.ofHours(1));
+        BadCredentialsException first = new BadCredentialsException("Bad credentials");
+        BadCredentialsException second = new BadCredentialsException("Bad credentials");
+        DisabledException disabled = new DisabledException("User is disabled");
+
+        // Act & Assert
+        assertSame(first, throttle.sample(first));
+        assertNull(throttle.sample(second));
+        assertSame(disabled, throttle.sample(disabled));
+    }
+
+    @Test
+    void shouldSampleAgainOnceIntervalHasPassed() {
+        // Arrange
+        StackTraceThrottle throttle = new StackTraceThrottle();
+        ReflectionTestUtils.setField(throttle, "interval", Duration.ZERO);
+        BadCredentialsException ex = new BadCredentialsException("Bad credentials");
+
+        // Act & Assert
+        assertSame(ex, throttle.sample(ex));
+        assertSame(ex, throttle.sample(ex));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.training.overload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(meterRegistry, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(filter, "excludedPaths", new String[]{"/api/v1/users/export"});
+        ReflectionTestUtils.setField(filter, "authInitialLimit", 2);
+        ReflectionTestUtils.setField(filter, "authMinLimit", 1);
+        ReflectionTestUtils.setField(filter, "authMaxLimit", 10);
+        ReflectionTestUtils.setField(filter, "authLatencyThreshold", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(filter, "usersInitialLimit", 1);
+        ReflectionTestUtils.setField(filter, "usersMinLimit", 1);
+        ReflectionTestUtils.setField(filter, "usersMaxLimit", 10);
+        ReflectionTestUtils.setField(filter, "usersLatencyThreshold", Duration.ofSeconds(1));
+        filter.init();
+    }
+
+    @Test
+    void shouldShedRequestsOfGroupAtItsLimit() throws Exception {
+        // Arrange
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockHttpServletResponse otherGroup = new MockHttpServletResponse();
+
+        // Act: the users group is full while the first request is still being processed
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/me"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users/1"), shed, (req, res) -> fail());
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/auth/login"), otherGroup, (req, res) -> { });
+                });
+
+        // Assert
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        assertTrue(shed.getContentAsString().contains("overloaded"));
+        assertEquals(200, otherGroup.getStatus());
+        assertEquals(1, meterRegistry.get("http.server.concurrency.rejected").tag("group", "users").counter().count());
+        assertEquals(0, meterRegistry.get("http.server.concurrency.in_flight").tag("group", "users").gauge().value());
+    }
+
+    @Test
+    void aimdLimitShouldGrowWhileFastAndBackOffWhenSlowOrFailing() {
+        // Arrange
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(4, 1, 100, 0.5, Duration.ofMillis(100));
+        long fast = TimeUnit.MILLISECONDS.toNanos(5);
+        long slow = TimeUnit.MILLISECONDS.toNanos(500);
+
+        // Act: keep the limit fully used with fast requests
+        for (int i = 0; i < 40; i++) {
+            while (limit.tryAcquire()) {
+                // fill up to the current limit
+            }
+            limit.release(fast, false);
+        }
+        int grown = limit.getLimit();
+        limit.release(slow, false);
+        int afterSlow = limit.getLimit();
+        // A second overload signal within the same threshold period is ignored
+        limit.release(fast, true);
+
+        // Assert
+        assertTrue(grown > 4, "limit should grow, was " + grown);
+        assertEquals(grown / 2, afterSlow, 1);
+        assertEquals(afterSlow, limit.getLimit());
+    }
+
+    @Test
+    void shouldNotLimitExcludedOrOtherPaths() {
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/api/v1/users/export")));
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health")));
+        assertFalse(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/api/v1/users")));
+    }
+}
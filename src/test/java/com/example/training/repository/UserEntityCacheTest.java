@@ -0,0 +1,108 @@
+package com.example.training.repository;
+
+import com.example.training.config.EntityCacheConfig;
+import com.example.training.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each repository call runs in a transaction of its own, as in the application: a session
+ * never reads cache entries written after it started.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EntityCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserEntityCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("cached");
+        user.setEmail("cached@example.com");
+        user.setPassword("encoded_password");
+        user.setRoles(new HashSet<>(Set.of("USER", "ADMIN")));
+        userId = userRepository.save(user).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        // Arrange
+        userRepository.findById(userId);
+        userRepository.findByUsername("cached");
+        userRepository.findByEmail("cached@example.com");
+        statistics.clear();
+
+        // Act
+        User byId = userRepository.findById(userId).orElseThrow();
+        User byUsername = userRepository.findByUsername("cached").orElseThrow();
+        User byEmail = userRepository.findByEmail("cached@example.com").orElseThrow();
+
+        // Assert
+        assertEquals(Set.of("USER", "ADMIN"), byId.getRoles());
+        assertEquals(userId, byUsername.getId());
+        assertEquals(userId, byEmail.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void shouldStayConsistentWithWritesThroughRepository() {
+        // Arrange
+        User user = userRepository.findByUsername("cached").orElseThrow();
+        userRepository.findByEmail("cached@example.com");
+
+        // Act
+        user.setUsername("renamed");
+        user.setEmail("renamed@example.com");
+        user.setRoles(new HashSet<>(Set.of("USER")));
+        userRepository.save(user);
+
+        // Assert
+        assertTrue(userRepository.findByUsername("cached").isEmpty());
+        assertTrue(userRepository.findByEmail("cached@example.com").isEmpty());
+        User renamed = userRepository.findByUsername("renamed").orElseThrow();
+        assertEquals(Set.of("USER"), renamed.getRoles());
+        assertEquals(Set.of("USER"), userRepository.findById(userId).orElseThrow().getRoles());
+
+        // Act
+        userRepository.deleteById(userId);
+
+        // Assert
+        assertTrue(userRepository.findById(userId).isEmpty());
+        assertTrue(userRepository.findByUsername("renamed").isEmpty());
+    }
+}
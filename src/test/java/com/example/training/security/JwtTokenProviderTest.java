@@ -0,0 +1,177 @@
+package com.example.training.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = newProvider("test-secret-key-for-unit-tests-only-32b", 60_000);
+        userDetails = new User("testuser", "encoded_password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void shouldVerifyTokenAndExposeClaims() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(Map.of("tenant", "acme"), userDetails);
+
+        // Act
+        VerifiedToken verified = jwtTokenProvider.verifyToken(token);
+
+        // Assert
+        assertEquals("testuser", verified.subject());
+        assertEquals("acme", verified.getClaim("tenant", String.class));
+        assertFalse(verified.isExpired());
+        assertTrue(jwtTokenProvider.validateToken(verified, userDetails));
+        assertTrue(jwtTokenProvider.validateToken(token, userDetails));
+    }
+
+    @Test
+    void shouldRejectTokenForDifferentUser() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(userDetails);
+        UserDetails otherUser = new User("otheruser", "encoded_password", List.of());
+
+        // Act & Assert
+        assertFalse(jwtTokenProvider.validateToken(jwtTokenProvider.verifyToken(token), otherUser));
+    }
+
+    @Test
+    void shouldIssueEveryTokenWithItsOwnId() {
+        // Act
+        VerifiedToken first = jwtTokenProvider.verifyToken(jwtTokenProvider.generateToken(userDetails));
+        VerifiedToken second = jwtTokenProvider.verifyToken(jwtTokenProvider.generateToken(userDetails));
+
+        // Assert
+        assertNotNull(first.tokenId());
+        assertNotEquals(first.tokenId(), second.tokenId());
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Arrange
+        JwtTokenProvider expiringProvider = newProvider("test-secret-key-for-unit-tests-only-32b", -1_000);
+        String token = expiringProvider.generateToken(userDetails);
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> expiringProvider.verifyToken(token));
+        assertFalse(expiringProvider.validateToken(token, userDetails));
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        // Arrange
+        JwtTokenProvider otherProvider = newProvider("another-secret-key-that-is-long-enough", 60_000);
+        String token = otherProvider.generateToken(userDetails);
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtTokenProvider.verifyToken(token));
+    }
+
+    @Test
+    void shouldRoundTripUserClaimsInStatelessMode() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtTokenProvider, "statelessEnabled", true);
+        AuthenticatedUser user = new AuthenticatedUser(42L, "testuser", "encoded_password", true,
+                AuthenticatedUser.toAuthorities(List.of("USER", "ADMIN")));
+        String token = jwtTokenProvider.generateToken(user);
+
+        // Act
+        AuthenticatedUser principal = jwtTokenProvider.extractPrincipal(jwtTokenProvider.verifyToken(token));
+
+        // Assert
+        assertNotNull(principal);
+        assertEquals(42L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertTrue(principal.isEnabled());
+        assertEquals(Set.of("USER", "ADMIN"), principal.getRoles());
+    }
+
+    @Test
+    void shouldNotBuildPrincipalFromTokenWithoutUserClaims() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // Act & Assert
+        assertNull(jwtTokenProvider.extractPrincipal(jwtTokenProvider.verifyToken(token)));
+    }
+
+    @Test
+    void shouldRecordVerificationOutcomes() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtTokenProvider provider = newProvider(meterRegistry, "test-secret-key-for-unit-tests-only-32b", 60_000);
+        String validToken = provider.generateToken(userDetails);
+        String expiredToken = newProvider("test-secret-key-for-unit-tests-only-32b", -1_000).generateToken(userDetails);
+        String foreignToken = newProvider("another-secret-key-that-is-long-enough", 60_000).generateToken(userDetails);
+
+        // Act
+        provider.verifyToken(validToken);
+        assertThrows(JwtException.class, () -> provider.verifyToken(expiredToken));
+        assertThrows(JwtException.class, () -> provider.verifyToken(foreignToken));
+        assertThrows(JwtException.class, () -> provider.verifyToken("not-a-jwt"));
+
+        // Assert
+        for (String outcome : List.of("valid", "expired", "bad_signature", "malformed")) {
+            assertEquals(1, meterRegistry.get("auth.token.verify").tag("outcome", outcome).timer().count(), outcome);
+        }
+    }
+
+    @Test
+    void shouldEmitVerificationEventWhenRecording() throws Exception {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(userDetails);
+        Path file = Files.createTempFile("jwt-test", ".jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.training.TokenVerification");
+            recording.start();
+            jwtTokenProvider.verifyToken(token);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(1, events.size());
+        assertEquals("valid", events.get(0).getString("outcome"));
+        assertEquals(16, events.get(0).getString("usernameHash").length());
+        assertNotEquals("testuser", events.get(0).getString("usernameHash"));
+    }
+
+    private static JwtTokenProvider newProvider(String secret, long expiration) {
+        return newProvider(new SimpleMeterRegistry(), secret, expiration);
+    }
+
+    private static JwtTokenProvider newProvider(SimpleMeterRegistry meterRegistry, String secret, long expiration) {
+        JwtTokenProvider provider = new JwtTokenProvider(meterRegistry);
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expiration);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.training.security;
+
+import com.example.training.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new LoginRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "ipCapacity", 5);
+        ReflectionTestUtils.setField(rateLimiter, "ipRefillPeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(rateLimiter, "usernameCapacity", 3);
+        ReflectionTestUtils.setField(rateLimiter, "usernameRefillPeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(rateLimiter, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "idleTimeout", Duration.ofMinutes(10));
+        rateLimiter.init();
+    }
+
+    @Test
+    void shouldRejectUsernameOnceItsBucketIsEmpty() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("10.0.0." + i, "victim");
+        }
+
+        // Act
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire("10.0.0.9", "Victim"));
+
+        // Assert
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ofMinutes(19)) > 0);
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ofMinutes(20)) <= 0);
+        assertDoesNotThrow(() -> rateLimiter.acquire("10.0.0.9", "someone-else"));
+        assertEquals(1, meterRegistry.get("auth.login.rate_limited").tag("limit", "username").counter().count());
+    }
+
+    @Test
+    void shouldRejectClientOnceItsBucketIsEmpty() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire("10.0.0.1", "user" + i);
+        }
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("10.0.0.1", "user9"));
+        assertDoesNotThrow(() -> rateLimiter.acquire("10.0.0.2", "user9"));
+        assertEquals(1, meterRegistry.get("auth.login.rate_limited").tag("limit", "ip").counter().count());
+    }
+}
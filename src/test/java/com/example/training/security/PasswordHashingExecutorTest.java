@@ -0,0 +1,94 @@
+package com.example.training.security;
+
+import com.example.training.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry);
+        ReflectionTestUtils.setField(executor, "poolSize", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executor, "timeout", Duration.ofMillis(100));
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldDropQueuedTaskWhenItTimesOut() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit(() -> {
+            running.countDown();
+            awaitRelease();
+            return "busy";
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        AtomicBoolean queuedTaskRan = new AtomicBoolean();
+
+        // Act
+        CompletableFuture<String> queued = executor.submit(() -> {
+            queuedTaskRan.set(true);
+            return "late";
+        });
+        CompletionException ex = assertThrows(CompletionException.class, queued::join);
+
+        // Assert
+        assertInstanceOf(ServiceUnavailableException.class, ex.getCause());
+        assertEquals(0, meterRegistry.get("password.hashing.queue.size").gauge().value());
+        // The slot freed by the timed out task takes a new one
+        CompletableFuture<String> next = executor.submit(() -> "next");
+        release.countDown();
+        assertEquals("next", next.join());
+        assertFalse(queuedTaskRan.get());
+    }
+
+    @Test
+    void shouldRejectTaskWhenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        executor.submit(() -> {
+            running.countDown();
+            awaitRelease();
+            return "busy";
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.submit(() -> "queued");
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> executor.submit(() -> "rejected"));
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
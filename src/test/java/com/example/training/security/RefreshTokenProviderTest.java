@@ -0,0 +1,97 @@
+package com.example.training.security;
+
+import com.example.training.model.User;
+import com.example.training.repository.RefreshTokenRepository;
+import com.example.training.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(RefreshTokenProvider.class)
+class RefreshTokenProviderTest {
+
+    @Autowired
+    private RefreshTokenProvider refreshTokenProvider;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("refresh-user");
+        user.setEmail("refresh-user@example.com");
+        user.setPassword("encoded_password");
+        user.setRoles(Set.of("USER"));
+        userId = userRepository.saveAndFlush(user).getId();
+    }
+
+    @Test
+    void shouldRotateTokenAndStoreOnlyItsHash() {
+        // Arrange
+        String token = refreshTokenProvider.issue(userId);
+
+        // Act
+        RefreshTokenProvider.Rotation rotation = refreshTokenProvider.rotate(token);
+
+        // Assert
+        assertEquals(userId, rotation.userId());
+        assertNotEquals(token, rotation.refreshToken());
+        assertFalse(refreshTokenRepository.existsById(token));
+        assertTrue(refreshTokenRepository.existsById(RefreshTokenProvider.hash(rotation.refreshToken())));
+    }
+
+    @Test
+    void shouldRevokeFamilyWhenUsedTokenIsPresentedAgain() {
+        // Arrange
+        String token = refreshTokenProvider.issue(userId);
+        String rotated = refreshTokenProvider.rotate(token).refreshToken();
+
+        // Act
+        InvalidRefreshTokenException reused = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenProvider.rotate(token));
+        InvalidRefreshTokenException revoked = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenProvider.rotate(rotated));
+
+        // Assert
+        assertEquals(InvalidRefreshTokenException.Reason.REUSED, reused.getReason());
+        assertEquals(InvalidRefreshTokenException.Reason.UNKNOWN, revoked.getReason());
+        assertEquals(0, refreshTokenRepository.count());
+    }
+
+    @Test
+    void shouldRevokeEveryFamilyOfUserOnly() {
+        // Arrange
+        User other = new User();
+        other.setUsername("other-user");
+        other.setEmail("other-user@example.com");
+        other.setPassword("encoded_password");
+        other.setRoles(Set.of("USER"));
+        Long otherId = userRepository.saveAndFlush(other).getId();
+        String firstLogin = refreshTokenProvider.issue(userId);
+        String secondLogin = refreshTokenProvider.rotate(refreshTokenProvider.issue(userId)).refreshToken();
+        String otherLogin = refreshTokenProvider.issue(otherId);
+
+        // Act
+        refreshTokenProvider.revokeAllForUser(userId);
+
+        // Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenProvider.rotate(firstLogin));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenProvider.rotate(secondLogin));
+        assertEquals(otherId, refreshTokenProvider.rotate(otherLogin).userId());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.training.security;
+
+import com.example.training.model.RevokedToken;
+import com.example.training.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationList, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocationList, "syncOverlap", Duration.ofSeconds(30));
+        // Left disabled so init() starts no background thread; enabled once it has run
+        revocationList.init();
+        ReflectionTestUtils.setField(revocationList, "enabled", true);
+    }
+
+    @Test
+    void shouldRejectRevokedTokensOnly() {
+        // Arrange
+        String revoked = UUID.randomUUID().toString();
+
+        // Act
+        revocationList.revoke(revoked, "testuser", Instant.now().plusSeconds(60));
+
+        // Assert
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(revocationList.isRevoked(revoked));
+        assertFalse(revocationList.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void shouldPickUpTokensRevokedOnOtherNodes() {
+        // Arrange
+        String revoked = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                new RevokedToken(revoked, "testuser", Instant.now(), Instant.now().plusSeconds(60))));
+
+        // Act
+        revocationList.sync();
+
+        // Assert
+        assertTrue(revocationList.isRevoked(revoked));
+    }
+
+    @Test
+    void shouldForgetExpiredTokensWhenPruning() {
+        // Arrange
+        String expired = UUID.randomUUID().toString();
+        String active = UUID.randomUUID().toString();
+        revocationList.revoke(expired, "testuser", Instant.now().minusSeconds(1));
+        revocationList.revoke(active, "testuser", Instant.now().plusSeconds(60));
+
+        // Act
+        revocationList.prune();
+
+        // Assert
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertFalse(revocationList.isRevoked(expired));
+        assertTrue(revocationList.isRevoked(active));
+    }
+
+    @Test
+    void bloomFilterShouldNeverMissAndRarelyMatchOthers() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<String> added = IntStream.range(0, 10_000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+        added.forEach(filter::put);
+
+        // Act
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        // Assert
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.training.service;
+
+import com.example.training.audit.AuditEventPublisher;
+import com.example.training.dto.AuthRequestDto;
+import com.example.training.dto.AuthResponseDto;
+import com.example.training.dto.UserDto;
+import com.example.training.repository.UserRepository;
+import com.example.training.security.AuthenticatedUser;
+import com.example.training.model.AuditAction;
+import com.example.training.security.CustomUserDetailsService;
+import com.example.training.security.InvalidRefreshTokenException;
+import com.example.training.security.JwtTokenProvider;
+import com.example.training.security.RefreshTokenProvider;
+import com.example.training.security.TokenRevocationList;
+import com.example.training.security.VerifiedToken;
+import com.example.training.service.impl.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private AuditEventPublisher auditEventPublisher;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private RefreshTokenProvider refreshTokenProvider;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private AuthServiceImpl authService;
+
+    @Test
+    void authenticate_ShouldUseIdFromPrincipal() {
+        // Arrange
+        AuthenticatedUser principal = new AuthenticatedUser(
+                1L, "testuser", "encoded_password", true, AuthenticatedUser.toAuthorities(List.of("USER")));
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        when(jwtTokenProvider.generateToken(eq(principal), anyString())).thenReturn("token");
+        when(refreshTokenProvider.issue(1L)).thenReturn("refresh-token");
+
+        // Act
+        AuthResponseDto result = authService.authenticate(new AuthRequestDto("testuser", "password"));
+
+        // Assert
+        assertEquals("token", result.getToken());
+        assertEquals("Bearer", result.getTokenType());
+        assertEquals("refresh-token", result.getRefreshToken());
+        assertEquals("testuser", result.getUsername());
+        assertEquals(1L, result.getUserId());
+        verifyNoInteractions(userRepository);
+        assertEquals(1, meterRegistry.get("auth.requests")
+                .tags("operation", "login", "outcome", "success").timer().count());
+        // The audit trail records the jti the token was signed with, without parsing the token again
+        ArgumentCaptor<String> tokenId = ArgumentCaptor.forClass(String.class);
+        verify(jwtTokenProvider).generateToken(eq(principal), tokenId.capture());
+        verify(auditEventPublisher).publish(AuditAction.LOGIN, "testuser", "success", "jti=" + tokenId.getValue());
+        verify(jwtTokenProvider, never()).extractClaim(any(), any());
+    }
+
+    @Test
+    void register_ShouldIssueTokenWithoutReauthenticating() {
+        // Arrange
+        UserDto request = new UserDto();
+        request.setUsername("newuser");
+        request.setEmail("new@example.com");
+        request.setPassword("password");
+
+        UserDto created = new UserDto();
+        created.setId(2L);
+        created.setUsername("newuser");
+        created.setEmail("new@example.com");
+        created.setRoles(Set.of("USER"));
+
+        when(userService.createUser(request)).thenReturn(created);
+        when(jwtTokenProvider.generateToken(any(), anyString())).thenReturn("token");
+
+        // Act
+        AuthResponseDto result = authService.register(request);
+
+        // Assert
+        assertEquals("token", result.getToken());
+        assertEquals(2L, result.getUserId());
+
+        ArgumentCaptor<UserDetails> principal = ArgumentCaptor.forClass(UserDetails.class);
+        verify(jwtTokenProvider).generateToken(principal.capture(), anyString());
+        AuthenticatedUser user = assertInstanceOf(AuthenticatedUser.class, principal.getValue());
+        assertEquals(2L, user.getId());
+        assertEquals(Set.of("USER"), user.getRoles());
+        verifyNoInteractions(authenticationManager, userRepository);
+    }
+
+    @Test
+    void authenticate_ShouldRecordBadCredentials() {
+        // Arrange
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // Act
+        assertThrows(BadCredentialsException.class,
+                () -> authService.authenticate(new AuthRequestDto("testuser", "wrong")));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("auth.requests")
+                .tags("operation", "login", "outcome", "bad_credentials").timer().count());
+    }
+
+    @Test
+    void logout_ShouldRevokeTokenUntilItExpires() {
+        // Arrange
+        Instant expiresAt = Instant.ofEpochMilli(System.currentTimeMillis() + 60_000);
+        when(jwtTokenProvider.verifyToken("token")).thenReturn(new VerifiedToken(
+                "testuser", new Date(), Date.from(expiresAt), Map.of("jti", "token-id")));
+
+        // Act
+        authService.logout("token", null);
+
+        // Assert
+        verify(tokenRevocationList).revoke("token-id", "testuser", expiresAt);
+        verify(auditEventPublisher).publish(AuditAction.TOKEN_REVOKED, "testuser", "success", "jti=token-id");
+    }
+
+    @Test
+    void logout_ShouldAcceptExpiredToken() {
+        // Arrange
+        Claims claims = Jwts.claims().setSubject("testuser").setId("token-id");
+        when(jwtTokenProvider.verifyToken("expired-token"))
+                .thenThrow(new ExpiredJwtException(null, claims, "JWT expired"));
+
+        // Act
+        authService.logout("expired-token", "refresh-token");
+
+        // Assert
+        verify(refreshTokenProvider).revokeFamily("refresh-token");
+        verifyNoInteractions(tokenRevocationList, auditEventPublisher);
+    }
+
+    @Test
+    void refresh_ShouldIssueNewTokensWithoutAuthenticating() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(
+                1L, "testuser", "encoded_password", true, AuthenticatedUser.toAuthorities(List.of("USER")));
+        when(refreshTokenProvider.rotate("old-refresh-token"))
+                .thenReturn(new RefreshTokenProvider.Rotation(1L, "new-refresh-token"));
+        when(userDetailsService.loadUserById(1L)).thenReturn(user);
+        when(jwtTokenProvider.generateToken(eq(user), anyString())).thenReturn("token");
+
+        // Act
+        AuthResponseDto result = authService.refresh("old-refresh-token");
+
+        // Assert
+        assertEquals("token", result.getToken());
+        assertEquals("new-refresh-token", result.getRefreshToken());
+        assertEquals(1L, result.getUserId());
+        verifyNoInteractions(authenticationManager);
+        assertEquals(1, meterRegistry.get("auth.requests")
+                .tags("operation", "refresh", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void refresh_ShouldRecordReusedToken() {
+        // Arrange
+        when(refreshTokenProvider.rotate("used-refresh-token")).thenThrow(new InvalidRefreshTokenException(
+                InvalidRefreshTokenException.Reason.REUSED, "Refresh token already used"));
+
+        // Act
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh("used-refresh-token"));
+
+        // Assert
+        verifyNoInteractions(jwtTokenProvider, userDetailsService);
+        assertEquals(1, meterRegistry.get("auth.requests")
+                .tags("operation", "refresh", "outcome", "reused").timer().count());
+    }
+}
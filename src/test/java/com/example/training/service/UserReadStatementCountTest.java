@@ -0,0 +1,105 @@
+package com.example.training.service;
+
+import com.example.training.audit.AuditEventPublisher;
+import com.example.training.dto.UserDto;
+import com.example.training.dto.UserPageDto;
+import com.example.training.dto.UserPageRequestDto;
+import com.example.training.model.User;
+import com.example.training.repository.UserRepository;
+import com.example.training.security.RefreshTokenProvider;
+import com.example.training.service.impl.UserBatchLoader;
+import com.example.training.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({UserServiceImpl.class, UserBatchLoader.class, RefreshTokenProvider.class, SimpleMeterRegistry.class})
+class UserReadStatementCountTest {
+
+    private static final int USER_COUNT = 5;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private AuditEventPublisher auditEventPublisher;
+
+    private Statistics statistics;
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("encoded_password");
+            user.setRoles(new HashSet<>(Set.of("USER", "ADMIN")));
+            User saved = userRepository.saveAndFlush(user);
+            if (firstUserId == null) {
+                firstUserId = saved.getId();
+            }
+        }
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldLoadSingleUserWithRolesInOneStatement() {
+        // Act
+        UserDto result = userService.getUserById(firstUserId);
+
+        // Assert
+        assertEquals(Set.of("USER", "ADMIN"), result.getRoles());
+        // The user entity is loaded (to be cached), its roles fetched by the same statement
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldLoadPageOfUsersWithRolesInTwoStatements() {
+        // Arrange
+        UserPageRequestDto pageRequest = new UserPageRequestDto();
+        pageRequest.setLimit(USER_COUNT);
+
+        // Act
+        UserPageDto page = userService.getAllUsers(pageRequest);
+
+        // Assert
+        assertEquals(USER_COUNT, page.getItems().size());
+        page.getItems().forEach(user -> assertEquals(Set.of("USER", "ADMIN"), user.getRoles()));
+        // One statement for the page keys, one for the users and all of their roles
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
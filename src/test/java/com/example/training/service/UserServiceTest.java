@@ -1,18 +1,31 @@
 package com.example.training.service;
 
+import com.example.training.audit.AuditEventPublisher;
 import com.example.training.dto.UserDto;
+import com.example.training.dto.UserPageDto;
+import com.example.training.dto.UserPageRequestDto;
+import com.example.training.event.UserChangedEvent;
 import com.example.training.exception.ResourceNotFoundException;
 import com.example.training.exception.ValidationException;
+import com.example.training.model.AuditAction;
 import com.example.training.model.User;
+import com.example.training.repository.UserKey;
 import com.example.training.repository.UserRepository;
+import com.example.training.repository.UserRoleRow;
+import com.example.training.security.RefreshTokenProvider;
+import com.example.training.service.impl.UserBatchLoader;
 import com.example.training.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +44,21 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AuditEventPublisher auditEventPublisher;
+
+    @Mock
+    private UserBatchLoader userBatchLoader;
+
+    @Mock
+    private RefreshTokenProvider refreshTokenProvider;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -39,6 +67,9 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         user = new User();
         user.setId(1L);
         user.setUsername("testuser");
@@ -62,7 +93,8 @@ class UserServiceTest {
     @Test
     void shouldReturnUserWhenFoundById() {
         // Arrange
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        userDto.setRoles(Set.of("USER", "ADMIN"));
+        when(userBatchLoader.load(1L)).thenReturn(Optional.of(userDto));
 
         // Act
         UserDto result = userService.getUserById(1L);
@@ -71,17 +103,35 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("testuser", result.getUsername());
-        verify(userRepository).findById(1L);
+        assertEquals(Set.of("USER", "ADMIN"), result.getRoles());
+        verify(userBatchLoader).load(1L);
     }
 
     @Test
     void shouldThrowExceptionWhenUserNotFound() {
         // Arrange
-        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        when(userBatchLoader.load(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(99L));
-        verify(userRepository).findById(99L);
+        verify(userBatchLoader).load(99L);
+    }
+
+    @Test
+    void shouldReturnUsersByIdsInRequestedOrderInOneQuery() {
+        // Arrange
+        User other = new User();
+        other.setId(2L);
+        other.setUsername("other");
+        other.setRoles(Set.of("USER"));
+        when(userRepository.findAllWithRolesByIdIn(Set.of(1L, 2L, 99L))).thenReturn(List.of(user, other));
+
+        // Act
+        List<UserDto> result = userService.getUsersByIds(List.of(2L, 99L, 1L, 2L));
+
+        // Assert
+        assertEquals(List.of("other", "testuser"), result.stream().map(UserDto::getUsername).toList());
+        verify(userRepository).findAllWithRolesByIdIn(Set.of(1L, 2L, 99L));
     }
 
     @Test
@@ -98,8 +148,12 @@ class UserServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("testuser", result.getUsername());
-        verify(passwordEncoder).encode("password");
-        verify(userRepository).save(any(User.class));
+        // Hashed before the transaction takes a connection
+        InOrder inOrder = inOrder(passwordEncoder, transactionTemplate, userRepository);
+        inOrder.verify(passwordEncoder).encode("password");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).save(any(User.class));
+        verify(auditEventPublisher).publish(AuditAction.USER_CREATED, "testuser", "success", null);
     }
     
     @Test
@@ -112,4 +166,88 @@ class UserServiceTest {
         verify(userRepository).existsByUsername("testuser");
         verify(userRepository, never()).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPublishUserChangedEventWhenUserUpdated() {
+        // Arrange
+        userDto.setUsername("renamed");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsByUsername("renamed")).thenReturn(false);
+        when(passwordEncoder.encode("password")).thenReturn("new_encoded_password");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userService.updateUser(1L, userDto);
+
+        // Assert
+        verify(eventPublisher).publishEvent(UserChangedEvent.of("testuser", "renamed"));
+    }
+
+    @Test
+    void shouldRevokeRefreshTokensWhenPasswordChanges() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("password")).thenReturn("new_encoded_password");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userService.updateUser(1L, userDto);
+
+        // Assert
+        assertEquals("new_encoded_password", user.getPassword());
+        verify(refreshTokenProvider).revokeAllForUser(1L);
+    }
+
+    @Test
+    void shouldKeepRefreshTokensWhenPasswordIsUnchanged() {
+        // Arrange
+        userDto.setPassword(null);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userService.updateUser(1L, userDto);
+
+        // Assert
+        assertEquals("encoded_password", user.getPassword());
+        verifyNoInteractions(passwordEncoder, refreshTokenProvider);
+    }
+
+    @Test
+    void shouldPublishUserChangedEventWhenUserDeleted() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.deleteUser(1L);
+
+        // Assert
+        verify(userRepository).delete(user);
+        verify(eventPublisher).publishEvent(UserChangedEvent.of("testuser"));
+        verify(auditEventPublisher).publish(AuditAction.USER_DELETED, "testuser", "success", null);
+    }
+
+    @Test
+    void shouldReturnKeysetPageWithNextCursor() {
+        // Arrange
+        UserPageRequestDto pageRequest = new UserPageRequestDto();
+        pageRequest.setLimit(1);
+        when(userRepository.findPageKeys(false, true, null, 2))
+                .thenReturn(List.of(new UserKey(1L, null), new UserKey(2L, null)));
+        when(userRepository.findRowsByIdIn(List.of(1L))).thenReturn(List.of(
+                new UserRoleRow(1L, "testuser", "test@example.com", "Test", "User", "USER")));
+
+        // Act
+        UserPageDto firstPage = userService.getAllUsers(pageRequest);
+        pageRequest.setCursor(firstPage.getNextCursor());
+        userService.getAllUsers(pageRequest);
+
+        // Assert
+        assertEquals(1, firstPage.getItems().size());
+        assertEquals("testuser", firstPage.getItems().get(0).getUsername());
+        assertNotNull(firstPage.getNextCursor());
+        assertNull(firstPage.getTotal());
+        verify(userRepository).findPageKeys(false, true, new UserKey(1L, null), 2);
+        verify(userRepository, never()).count();
+    }
+}
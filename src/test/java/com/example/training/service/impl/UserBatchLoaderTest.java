@@ -0,0 +1,151 @@
+package com.example.training.service.impl;
+
+import com.example.training.dto.UserDto;
+import com.example.training.model.User;
+import com.example.training.observability.QueryCountingStatementInspector;
+import com.example.training.observability.QueryStats;
+import com.example.training.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchLoaderTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserBatchLoader batchLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        batchLoader = new UserBatchLoader(userRepository, transactionManager, entityManagerFactory, meterRegistry);
+        ReflectionTestUtils.setField(batchLoader, "enabled", true);
+        // Long enough that only a full batch is loaded during the test
+        ReflectionTestUtils.setField(batchLoader, "window", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(batchLoader, "maxBatchSize", 3);
+        batchLoader.init();
+    }
+
+    @Test
+    void shouldLoadConcurrentLookupsWithOneQuery() throws Exception {
+        // Arrange
+        when(userRepository.findAllWithRolesByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(UserBatchLoaderTest::user).toList();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act: a second lookup of user 1 joins the first, then users 2 and 3 fill the batch
+            CompletableFuture<Optional<UserDto>> first = CompletableFuture.supplyAsync(() -> batchLoader.load(1L), executor);
+            CompletableFuture<Optional<UserDto>> duplicate = CompletableFuture.supplyAsync(() -> batchLoader.load(1L), executor);
+            while (meterRegistry.get("users.batch_loader.coalesced").counter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<Optional<UserDto>> second = CompletableFuture.supplyAsync(() -> batchLoader.load(2L), executor);
+            CompletableFuture<Optional<UserDto>> missing = CompletableFuture.supplyAsync(() -> batchLoader.load(3L), executor);
+
+            // Assert
+            assertEquals(1L, first.get().orElseThrow().getId());
+            assertSame(first.get().orElseThrow(), duplicate.get().orElseThrow());
+            assertEquals(2L, second.get().orElseThrow().getId());
+            assertTrue(missing.get().isEmpty());
+            assertEquals(Set.of("USER"), second.get().orElseThrow().getRoles());
+            verify(userRepository).findAllWithRolesByIdIn(Set.of(1L, 2L, 3L));
+            verify(userRepository, never()).findById(anyLong());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldChargeBatchedQueryToEveryLookup() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(batchLoader, "maxBatchSize", 2);
+        QueryCountingStatementInspector statementInspector = new QueryCountingStatementInspector();
+        when(userRepository.findAllWithRolesByIdIn(any())).thenAnswer(invocation -> {
+            statementInspector.inspect("select ...");
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(UserBatchLoaderTest::user).toList();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act: one of the lookups runs the query for both
+            Future<Integer> first = executor.submit(() -> statementsOfLookup(1L));
+            Future<Integer> second = executor.submit(() -> statementsOfLookup(2L));
+
+            // Assert
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            verify(userRepository).findAllWithRolesByIdIn(Set.of(1L, 2L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReturnCachedUsersWithoutBatching() {
+        // Arrange
+        when(cache.contains(User.class, 1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        // Act
+        Optional<UserDto> result = batchLoader.load(1L);
+
+        // Assert
+        assertEquals(1L, result.orElseThrow().getId());
+        verify(userRepository, never()).findAllWithRolesByIdIn(any());
+    }
+
+    private int statementsOfLookup(Long id) {
+        try (QueryStats stats = QueryStats.start()) {
+            assertEquals(id, batchLoader.load(id).orElseThrow().getId());
+            return stats.getStatements();
+        }
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setRoles(Set.of("USER"));
+        return user;
+    }
+}
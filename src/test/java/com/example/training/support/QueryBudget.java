@@ -0,0 +1,44 @@
+package com.example.training.support;
+
+import com.example.training.observability.QueryStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions that fail a test when code runs more SQL statements than its budget.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    /**
+     * MockMvc matcher for the statements run by the whole request. Async requests are only
+     * measured in full on the result of {@code asyncDispatch}.
+     */
+    public static ResultMatcher statementsAtMost(int maxStatements) {
+        return result -> {
+            assertFalse(result.getRequest().isAsyncStarted(), "Async request has not completed; match on asyncDispatch(result)");
+            QueryStats stats = (QueryStats) result.getRequest().getAttribute(QueryStats.REQUEST_ATTRIBUTE);
+            assertNotNull(stats, "Request was not measured; is QueryStatsFilter enabled?");
+            assertTrue(stats.getStatements() <= maxStatements, () -> String.format("%s %s ran %d SQL statements, budget is %d",
+                    result.getRequest().getMethod(), result.getRequest().getRequestURI(), stats.getStatements(), maxStatements));
+        };
+    }
+
+    /**
+     * Runs the action and fails if it ran more statements than the budget.
+     * @return the result of the action
+     */
+    public static <T> T statementsAtMost(int maxStatements, Supplier<T> action) {
+        try (QueryStats stats = QueryStats.start()) {
+            T result = action.get();
+            assertTrue(stats.getStatements() <= maxStatements,
+                    () -> String.format("Ran %d SQL statements, budget is %d", stats.getStatements(), maxStatements));
+            return result;
+        }
+    }
+}